@@ -0,0 +1,156 @@
+package com.gitanalyzer.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Works out the calling client's address behind proxies, for search logging and rate limiting.
+ * Forwarding headers are only believed when the connection comes from a configured proxy, since
+ * anyone else can put whatever they like in them.
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    // Addresses or CIDR blocks of the reverse proxies in front of the application
+    @Value("${client-ip.trusted-proxies:127.0.0.1,::1}")
+    private String trustedProxies;
+
+    private final List<Block> trusted = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        for (String entry : trustedProxies.split(",")) {
+            String proxy = entry.trim();
+            if (proxy.isEmpty()) {
+                continue;
+            }
+            Block block = Block.parse(proxy);
+            if (block == null) {
+                log.warn("Ignoring trusted proxy {}: not an IP address or CIDR block", proxy);
+            } else {
+                trusted.add(block);
+            }
+        }
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isTrusted(remoteAddress)) {
+            return remoteAddress;
+        }
+
+        // X-Forwarded-For lists the client first, then every proxy it passed through; each proxy appends
+        // the address it received the request from, so the right-most untrusted hop is the real client
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            String leftMost = null;
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (Block.toBytes(hop) == null) {
+                    // Not written by a proxy, so everything from here leftwards is the client's own claim
+                    break;
+                }
+                if (!isTrusted(hop)) {
+                    return hop;
+                }
+                leftMost = hop;
+            }
+            return leftMost != null ? leftMost : remoteAddress;
+        }
+
+        String realIp = request.getHeader("X-Real-IP");
+        if (realIp != null && !realIp.isBlank() && !"unknown".equalsIgnoreCase(realIp.trim())) {
+            return realIp.trim();
+        }
+        return remoteAddress;
+    }
+
+    private boolean isTrusted(String address) {
+        if (trusted.isEmpty()) {
+            return false;
+        }
+        byte[] bytes = Block.toBytes(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (Block block : trusted) {
+            if (block.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An address block such as 10.0.0.0/8; a plain address is a block of one
+     */
+    private record Block(byte[] network, int prefixLength) {
+
+        static Block parse(String value) {
+            int slash = value.indexOf('/');
+            byte[] network = toBytes(slash < 0 ? value : value.substring(0, slash));
+            if (network == null) {
+                return null;
+            }
+            int prefixLength = network.length * 8;
+            if (slash >= 0) {
+                try {
+                    prefixLength = Integer.parseInt(value.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (prefixLength < 0 || prefixLength > network.length * 8) {
+                    return null;
+                }
+            }
+            return new Block(network, prefixLength);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+
+        // Only IP literals are parsed, so a header value never triggers a DNS lookup
+        static byte[] toBytes(String address) {
+            String literal = address.trim();
+            if (literal.startsWith("[") && literal.endsWith("]")) {
+                literal = literal.substring(1, literal.length() - 1);
+            }
+            if (!IPV4.matcher(literal).matches() && literal.indexOf(':') < 0) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(literal).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.gitanalyzer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Central place where the application's executors are created.
+ * With spring.threads.virtual.enabled, which also moves Tomcat, @Async and scheduling onto virtual threads,
+ * the pools run on virtual threads and GitHub fan-out gets a thread per task; concurrency is then bounded by
+ * GitHubConcurrencyInterceptor instead. Analyses call GitHub outside any transaction so those requests do not
+ * pin pooled connections; with spring.jpa.open-in-view left on, a request still keeps the connection of its
+ * first query until it completes, so size the connection pool for the expected concurrency or turn it off.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${analytics.refresh.threads:4}")
+    private int refreshThreads;
+
+    @Value("${analytics.refresh.queue-capacity:100}")
+    private int refreshQueueCapacity;
+
+    @Value("${analytics.jobs.threads:4}")
+    private int jobThreads;
+
+    @Value("${analytics.jobs.queue-capacity:200}")
+    private int jobQueueCapacity;
+
+    @Value("${analytics.compare.threads:8}")
+    private int compareThreads;
+
+    @Value("${analytics.compare.queue-capacity:16}")
+    private int compareQueueCapacity;
+
+    @Value("${analytics.live.send-threads:2}")
+    private int liveSendThreads;
+
+    @Value("${analytics.live.send-queue-capacity:100}")
+    private int liveSendQueueCapacity;
+
+    @Value("${analytics.fan-out.threads:16}")
+    private int fanOutThreads;
+
+    @Value("${analytics.fan-out.queue-capacity:500}")
+    private int fanOutQueueCapacity;
+
+    /**
+     * Executor for background analytics refreshes; when the queue is full the refresh is dropped
+     * and the next request for that key will trigger it again
+     */
+    @Bean
+    public ThreadPoolTaskExecutor analyticsRefreshExecutor() {
+        return boundedPool("analytics-refresh-", refreshThreads, refreshQueueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Bounded pool for analysis jobs; workers only claim as many jobs as there are threads
+     */
+    @Bean
+    public ThreadPoolTaskExecutor analysisJobExecutor() {
+        return boundedPool("analysis-job-", jobThreads, jobQueueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor for comparison lanes. Saturation rejects the lane rather than running it on the caller,
+     * whose request would otherwise wait out a whole lane past the comparison deadline.
+     */
+    @Bean
+    public AsyncTaskExecutor analyticsCompareExecutor() {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("analytics-compare-");
+        }
+        return boundedPool("analytics-compare-", compareThreads, compareQueueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor writing live metric events to SSE subscribers, so a slow client never blocks the scheduler;
+     * when the queue is full the frame is skipped for that subscriber
+     */
+    @Bean
+    public ThreadPoolTaskExecutor liveMetricsExecutor() {
+        return boundedPool("live-metrics-", liveSendThreads, liveSendQueueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor for fanning out blocking GitHub and database work inside a single request or job.
+     * Saturation runs the task on the caller, so a fan-out never fails for lack of threads.
+     */
+    @Bean
+    public AsyncTaskExecutor analyticsFanOutExecutor() {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("analytics-fanout-");
+        }
+        return boundedPool("analytics-fanout-", fanOutThreads, fanOutQueueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private ThreadPoolTaskExecutor boundedPool(String namePrefix, int threads, int queueCapacity,
+                                               RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(namePrefix);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 1).factory());
+        }
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
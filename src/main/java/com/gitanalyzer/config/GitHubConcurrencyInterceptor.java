@@ -0,0 +1,62 @@
+package com.gitanalyzer.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent GitHub API calls per node. With virtual threads the thread count no longer
+ * limits fan-out, so this semaphore is what keeps bursts inside GitHub's secondary rate limits.
+ */
+@Slf4j
+@Component
+public class GitHubConcurrencyInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxConcurrentRequests;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public GitHubConcurrencyInterceptor(
+            @Value("${github.max-concurrent-requests:16}") int maxConcurrentRequests,
+            @Value("${github.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        this.permits = new Semaphore(this.maxConcurrentRequests, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for a GitHub request slot: {}", request.getURI());
+                throw new IOException("Too many concurrent GitHub requests");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a GitHub request slot");
+        }
+
+        try {
+            return execution.execute(request, body);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * GitHub requests currently in flight on this node
+     */
+    public int getInFlight() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+}
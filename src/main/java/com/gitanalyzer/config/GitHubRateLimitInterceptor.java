@@ -0,0 +1,72 @@
+package com.gitanalyzer.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts outgoing GitHub API requests and records the rate limit GitHub reports back,
+ * so background work can budget its API usage
+ */
+@Slf4j
+@Component
+public class GitHubRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong remaining = new AtomicLong(-1);
+    private final AtomicLong resetEpochSecond = new AtomicLong();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        requestCount.incrementAndGet();
+        ClientHttpResponse response = execution.execute(request, body);
+
+        try {
+            String remainingValue = response.getHeaders().getFirst(REMAINING_HEADER);
+            if (remainingValue != null) {
+                remaining.set(Long.parseLong(remainingValue.trim()));
+            }
+            String resetValue = response.getHeaders().getFirst(RESET_HEADER);
+            if (resetValue != null) {
+                resetEpochSecond.set(Long.parseLong(resetValue.trim()));
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed rate limit headers: {}", e.getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Total GitHub requests sent by this node
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Requests left in the current rate limit window as last reported by GitHub, or -1 if unknown
+     */
+    public long getRemaining() {
+        return remaining.get();
+    }
+
+    /**
+     * When the current rate limit window resets, or null if unknown
+     */
+    public Instant getResetAt() {
+        long reset = resetEpochSecond.get();
+        return reset > 0 ? Instant.ofEpochSecond(reset) : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.gitanalyzer.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gitanalyzer.dto.ApiResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client-IP request limits for the analytics and search log APIs, so one client cannot spend
+ * the shared GitHub budget on cold analyses. Endpoints are grouped into cost classes, each with its own
+ * sliding-window limit; rejected requests get 429 with Retry-After.
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    /**
+     * How expensive a request can be for us and for the GitHub quota
+     */
+    enum CostClass {
+        // May fetch from GitHub or start analyses
+        EXPENSIVE,
+        // Served from the database and caches
+        STANDARD,
+        // Search log writes
+        SEARCH_LOG
+    }
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private static final List<String> EXPENSIVE_GETS = List.of(
+            "/api/analytics/user/*",
+            "/api/analytics/repository/*/*");
+
+    // Cheap to answer and polled by the analytics page
+    private static final List<String> EXEMPT = List.of(
+            "/api/analytics/health",
+            "/api/analytics/search/live/**",
+            "/api/analytics/jobs/*");
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.expensive.requests:20}")
+    private int expensiveRequests;
+
+    @Value("${rate-limit.expensive.window-seconds:60}")
+    private long expensiveWindowSeconds;
+
+    @Value("${rate-limit.standard.requests:120}")
+    private int standardRequests;
+
+    @Value("${rate-limit.standard.window-seconds:60}")
+    private long standardWindowSeconds;
+
+    @Value("${rate-limit.search-log.requests:60}")
+    private int searchLogRequests;
+
+    @Value("${rate-limit.search-log.window-seconds:60}")
+    private long searchLogWindowSeconds;
+
+    private final Map<CostClass, SlidingWindowRateLimiter> limiters = new EnumMap<>(CostClass.class);
+
+    @PostConstruct
+    void init() {
+        limiters.put(CostClass.EXPENSIVE, new SlidingWindowRateLimiter(expensiveRequests, TimeUnit.SECONDS.toMillis(expensiveWindowSeconds)));
+        limiters.put(CostClass.STANDARD, new SlidingWindowRateLimiter(standardRequests, TimeUnit.SECONDS.toMillis(standardWindowSeconds)));
+        limiters.put(CostClass.SEARCH_LOG, new SlidingWindowRateLimiter(searchLogRequests, TimeUnit.SECONDS.toMillis(searchLogWindowSeconds)));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+
+        CostClass costClass = classify(request.getMethod(), request.getRequestURI());
+        if (costClass == null) {
+            return true;
+        }
+
+        SlidingWindowRateLimiter limiter = limiters.get(costClass);
+        String clientIp = clientIpResolver.resolve(request);
+        long now = System.currentTimeMillis();
+        long retryAfterMs = limiter.tryAcquire(clientIp, now);
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limiter.getLimit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(limiter.remaining(clientIp, now)));
+        if (retryAfterMs == 0) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999));
+        meterRegistry.counter("rate_limit.rejected", "class", costClass.name()).increment();
+        log.warn("Rate limited {} on {} {} ({}), retry after {}s",
+                clientIp, request.getMethod(), request.getRequestURI(), costClass, retryAfterSeconds);
+
+        ApiResponseDto<Void> body = ApiResponseDto.error(
+                "RATE_LIMITED",
+                "Too many requests",
+                String.format("Limit of %d requests exceeded, retry after %d seconds", limiter.getLimit(), retryAfterSeconds)
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        long now = System.currentTimeMillis();
+        limiters.values().forEach(limiter -> limiter.evictIdle(now));
+    }
+
+    /**
+     * Cost class of a request, or null when it is not limited
+     */
+    static CostClass classify(String method, String path) {
+        if (matchesAny(EXEMPT, path)) {
+            return null;
+        }
+        if (path.startsWith("/api/search-log")) {
+            return CostClass.SEARCH_LOG;
+        }
+        // Refreshes, comparisons and job submissions all reach GitHub
+        if ("POST".equals(method) || ("GET".equals(method) && matchesAny(EXPENSIVE_GETS, path))) {
+            return CostClass.EXPENSIVE;
+        }
+        return CostClass.STANDARD;
+    }
+
+    private static boolean matchesAny(List<String> patterns, String path) {
+        return patterns.stream().anyMatch(pattern -> PATHS.match(pattern, path));
+    }
+}
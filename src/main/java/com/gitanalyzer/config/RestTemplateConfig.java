@@ -10,8 +10,11 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(GitHubConcurrencyInterceptor gitHubConcurrencyInterceptor,
+                                     GitHubRateLimitInterceptor gitHubRateLimitInterceptor) {
         RestTemplate restTemplate = new RestTemplate(clientHttpRequestFactory());
+        restTemplate.getInterceptors().add(gitHubConcurrencyInterceptor);
+        restTemplate.getInterceptors().add(gitHubRateLimitInterceptor);
         return restTemplate;
     }
 
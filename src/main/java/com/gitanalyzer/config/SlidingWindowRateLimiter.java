@@ -0,0 +1,109 @@
+package com.gitanalyzer.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sliding-window request counter per key. Each key keeps the counts of the current and previous fixed window,
+ * and the previous count is weighted by how much of it still overlaps the sliding window.
+ * Keys are spread over independent stripes and each key's state is replaced by CAS, so callers never block.
+ */
+class SlidingWindowRateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final int limit;
+    private final long windowMs;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, AtomicReference<State>>[] stripes = new Map[STRIPES];
+
+    SlidingWindowRateLimiter(int limit, long windowMs) {
+        this.limit = Math.max(1, limit);
+        this.windowMs = Math.max(1, windowMs);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Count a request for the key if it is under the limit
+     * @return 0 when allowed, otherwise milliseconds until a request would be allowed again
+     */
+    long tryAcquire(String key, long nowMs) {
+        AtomicReference<State> ref = stripe(key).computeIfAbsent(key, k -> new AtomicReference<>(new State(0, 0, 0)));
+        long windowStart = nowMs - nowMs % windowMs;
+        while (true) {
+            State current = ref.get();
+            State rolled = current.roll(windowStart, windowMs);
+            if (estimate(rolled, nowMs) + 1 > limit) {
+                if (rolled != current) {
+                    ref.compareAndSet(current, rolled);
+                }
+                return retryAfter(rolled, nowMs);
+            }
+            if (ref.compareAndSet(current, new State(rolled.windowStart, rolled.count + 1, rolled.previousCount))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Requests the key could still make right now
+     */
+    int remaining(String key, long nowMs) {
+        AtomicReference<State> ref = stripe(key).get(key);
+        if (ref == null) {
+            return limit;
+        }
+        State rolled = ref.get().roll(nowMs - nowMs % windowMs, windowMs);
+        return (int) Math.max(0, Math.floor(limit - estimate(rolled, nowMs)));
+    }
+
+    /**
+     * Forget keys that have been idle for two full windows
+     */
+    void evictIdle(long nowMs) {
+        long cutoff = nowMs - nowMs % windowMs - windowMs;
+        for (Map<String, AtomicReference<State>> stripe : stripes) {
+            stripe.values().removeIf(ref -> ref.get().windowStart < cutoff);
+        }
+    }
+
+    private double estimate(State state, long nowMs) {
+        double overlap = 1.0 - (double) (nowMs - state.windowStart) / windowMs;
+        return state.previousCount * overlap + state.count;
+    }
+
+    private long retryAfter(State state, long nowMs) {
+        long windowEnd = state.windowStart + windowMs;
+        if (state.count >= limit) {
+            // Wait out this window, then until the carried-over count has decayed below the limit
+            return windowEnd - nowMs + (long) Math.ceil(windowMs * (1.0 - (double) (limit - 1) / state.count));
+        }
+        // The previous window's weight has to shrink enough to make room for one more
+        long at = state.windowStart + (long) Math.ceil(windowMs * (1.0 - (double) (limit - 1 - state.count) / state.previousCount));
+        return Math.max(1, Math.min(at, windowEnd) - nowMs);
+    }
+
+    private Map<String, AtomicReference<State>> stripe(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private record State(long windowStart, long count, long previousCount) {
+
+        // Move to the window starting at windowStart, carrying the count over if it was the one just before
+        State roll(long newWindowStart, long windowMs) {
+            if (newWindowStart == windowStart) {
+                return this;
+            }
+            long carried = newWindowStart - windowStart == windowMs ? count : 0;
+            return new State(newWindowStart, 0, carried);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.gitanalyzer.controller;
+
+import com.gitanalyzer.dto.AnalysisJobDto;
+import com.gitanalyzer.dto.ApiResponseDto;
+import com.gitanalyzer.service.AnalysisJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller for asynchronous analysis jobs
+ * Submitting returns a job id immediately; clients poll the job for progress and the final analytics.
+ * Jobs live in the analysis_jobs table, so any node can answer for a job run by another.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/analytics/jobs")
+@CrossOrigin(origins = "*")
+public class AnalysisJobController {
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    /**
+     * Start analysis of a GitHub user
+     * POST /api/analytics/jobs/user/{username}
+     */
+    @PostMapping("/user/{username}")
+    public ResponseEntity<ApiResponseDto<AnalysisJobDto>> submitUserAnalysis(@PathVariable String username) {
+        log.info("Submitting analysis job for user: {}", username);
+        return accepted(analysisJobService.submitUserAnalysis(username));
+    }
+
+    /**
+     * Start analysis of a repository
+     * POST /api/analytics/jobs/repository/{owner}/{repoName}
+     */
+    @PostMapping("/repository/{owner}/{repoName}")
+    public ResponseEntity<ApiResponseDto<AnalysisJobDto>> submitRepositoryAnalysis(
+            @PathVariable String owner,
+            @PathVariable String repoName) {
+        log.info("Submitting analysis job for repository: {}/{}", owner, repoName);
+        return accepted(analysisJobService.submitRepositoryAnalysis(owner, repoName));
+    }
+
+    /**
+     * Get job status, progress and (once finished) the analytics result
+     * GET /api/analytics/jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponseDto<AnalysisJobDto>> getJob(@PathVariable String jobId) {
+        Optional<AnalysisJobDto> job = analysisJobService.getJob(jobId);
+
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponseDto.error(
+                    "JOB_NOT_FOUND",
+                    "Analysis job not found: " + jobId,
+                    "The job does not exist or has expired"
+            ));
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(ApiResponseDto.success(job.get(), "Job " + job.get().getStatus().toLowerCase()));
+    }
+
+    /**
+     * List dead-lettered jobs (retries exhausted)
+     * GET /api/analytics/jobs/dead
+     */
+    @GetMapping("/dead")
+    public ResponseEntity<ApiResponseDto<List<AnalysisJobDto>>> getDeadLetters(
+            @RequestParam(defaultValue = "50") int limit) {
+        List<AnalysisJobDto> jobs = analysisJobService.getDeadLetters(Math.max(1, Math.min(limit, 500)));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(ApiResponseDto.success(jobs, String.format("Retrieved %d dead-lettered jobs", jobs.size())));
+    }
+
+    /**
+     * Queue statistics by status
+     * GET /api/analytics/jobs/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponseDto<Map<String, Long>>> getQueueStats() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(ApiResponseDto.success(analysisJobService.getQueueStats(), "Analysis job queue statistics"));
+    }
+
+    /**
+     * Re-queue a dead-lettered or failed job
+     * POST /api/analytics/jobs/{jobId}/retry
+     */
+    @PostMapping("/{jobId}/retry")
+    public ResponseEntity<ApiResponseDto<AnalysisJobDto>> retryJob(@PathVariable String jobId) {
+        Optional<AnalysisJobDto> job = analysisJobService.retry(jobId);
+
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponseDto.error(
+                    "JOB_NOT_RETRYABLE",
+                    "No dead or failed analysis job: " + jobId,
+                    "Only dead-lettered or failed jobs can be retried"
+            ));
+        }
+
+        return accepted(job.get());
+    }
+
+    private ResponseEntity<ApiResponseDto<AnalysisJobDto>> accepted(AnalysisJobDto job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/analytics/jobs/" + job.getJobId()))
+                .body(ApiResponseDto.success(job, "Analysis job accepted"));
+    }
+}
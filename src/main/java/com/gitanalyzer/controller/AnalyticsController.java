@@ -1,10 +1,15 @@
 package com.gitanalyzer.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gitanalyzer.dto.ApiResponseDto;
+import com.gitanalyzer.dto.ComparisonDto;
+import com.gitanalyzer.dto.LiveSearchMetricsDto;
 import com.gitanalyzer.dto.RepoAnalyticsDto;
 import com.gitanalyzer.dto.SearchAnalyticsDto;
 import com.gitanalyzer.dto.UserAnalyticsDto;
 import com.gitanalyzer.model.Repository;
+import com.gitanalyzer.service.AnalyticsResponseCache;
+import com.gitanalyzer.service.LiveSearchMetrics;
 import com.gitanalyzer.service.RepoAnalyticsService;
 import com.gitanalyzer.service.SearchLogService;
 import com.gitanalyzer.service.UserAnalyticsService;
@@ -14,10 +19,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -30,9 +41,22 @@ import java.util.Optional;
 @Slf4j
 @RestController
 @RequestMapping("/api/analytics")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {AnalyticsController.DATA_AGE_HEADER, AnalyticsController.SERVER_TIMING_HEADER})
 public class AnalyticsController {
 
+    // Seconds since the analysis was computed; not Age, which HTTP caches count against max-age
+    static final String DATA_AGE_HEADER = "X-Data-Age";
+
+    // Processing time of this request, for responses whose body is reused across requests
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    // Cache-Control per endpoint family; analytics responses are also revalidated with ETags
+    private static final CacheControl ANALYTICS_CACHE =
+            CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic().staleWhileRevalidate(Duration.ofMinutes(5));
+    private static final CacheControl LISTING_CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+    private static final CacheControl STATS_CACHE = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+    private static final CacheControl NO_STORE = CacheControl.noStore();
+
     @Autowired
     private UserAnalyticsService userAnalyticsService;
 
@@ -42,6 +66,15 @@ public class AnalyticsController {
     @Autowired
     private SearchLogService searchLogService;
 
+    @Autowired
+    private AnalyticsResponseCache analyticsResponseCache;
+
+    @Autowired
+    private LiveSearchMetrics liveSearchMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ======================== USER ANALYTICS ENDPOINTS ========================
 
     /**
@@ -49,7 +82,10 @@ public class AnalyticsController {
      * GET /api/analytics/user/{username}
      */
     @GetMapping("/user/{username}")
-    public ResponseEntity<ApiResponseDto<UserAnalyticsDto>> getUserAnalytics(@PathVariable String username) {
+    public ResponseEntity<?> getUserAnalytics(
+            @PathVariable String username,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         long startTime = System.currentTimeMillis();
 
         try {
@@ -59,15 +95,38 @@ public class AnalyticsController {
 
             long processingTime = System.currentTimeMillis() - startTime;
 
-            if (analytics.isPresent()) {
+            if (analytics.isPresent() && analytics.get().isPartial()) {
+                // Some sections fell back to empty values: no validator, and nothing may store it
                 ApiResponseDto<UserAnalyticsDto> response = ApiResponseDto.success(
                         analytics.get(),
-                        "User analytics retrieved successfully"
-                );
+                        "User analytics retrieved partially; some sections could not be computed in time"
+                ).withStaleness(analytics.get().getUpdatedAt(), UserAnalyticsService.STALE_AFTER);
                 response.setProcessingTimeMs(processingTime);
 
+                log.warn("Returning partial analytics for user: {} in {}ms", username, processingTime);
+                return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
+            }
+
+            if (analytics.isPresent()) {
+                String etag = AnalyticsEtags.forUser(analytics.get(), objectMapper);
+                if (AnalyticsEtags.matches(ifNoneMatch, etag)) {
+                    log.info("User analytics not modified for: {} in {}ms", username, processingTime);
+                    return notModified(etag, acceptEncoding);
+                }
+
+                // Encoded once per analysis version (and staleness); later views reuse the bytes
+                boolean stale = isStale(analytics.get().getUpdatedAt(), UserAnalyticsService.STALE_AFTER);
+                String bodyKey = "user:" + username + etag + (stale ? ";stale" : "");
+                AnalyticsResponseCache.EncodedResponse body = analyticsResponseCache.get(bodyKey, () -> {
+                    ApiResponseDto<UserAnalyticsDto> response = ApiResponseDto.success(
+                            analytics.get(),
+                            "User analytics retrieved successfully"
+                    ).withStaleness(analytics.get().getUpdatedAt(), UserAnalyticsService.STALE_AFTER);
+                    return objectMapper.writeValueAsBytes(withoutRequestFields(response));
+                });
+
                 log.info("Successfully retrieved analytics for user: {} in {}ms", username, processingTime);
-                return ResponseEntity.ok(response);
+                return okEncoded(body, etag, analytics.get().getUpdatedAt(), processingTime, acceptEncoding);
             } else {
                 ApiResponseDto<UserAnalyticsDto> response = ApiResponseDto.error(
                         "USER_NOT_FOUND",
@@ -118,7 +177,7 @@ public class AnalyticsController {
                 response.setProcessingTimeMs(processingTime);
 
                 log.info("Successfully refreshed analytics for user: {} in {}ms", username, processingTime);
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
             } else {
                 ApiResponseDto<UserAnalyticsDto> response = ApiResponseDto.error(
                         "REFRESH_FAILED",
@@ -179,7 +238,7 @@ public class AnalyticsController {
 
             log.info("Successfully retrieved {} repositories for user: {} in {}ms",
                     repositories.size(), username, processingTime);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(LISTING_CACHE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -203,9 +262,11 @@ public class AnalyticsController {
      * GET /api/analytics/repository/{owner}/{repoName}
      */
     @GetMapping("/repository/{owner}/{repoName}")
-    public ResponseEntity<ApiResponseDto<RepoAnalyticsDto>> getRepositoryAnalytics(
+    public ResponseEntity<?> getRepositoryAnalytics(
             @PathVariable String owner,
-            @PathVariable String repoName) {
+            @PathVariable String repoName,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
         long startTime = System.currentTimeMillis();
 
@@ -217,15 +278,26 @@ public class AnalyticsController {
             long processingTime = System.currentTimeMillis() - startTime;
 
             if (analytics.isPresent()) {
-                ApiResponseDto<RepoAnalyticsDto> response = ApiResponseDto.success(
-                        analytics.get(),
-                        "Repository analytics retrieved successfully"
-                );
-                response.setProcessingTimeMs(processingTime);
+                String etag = AnalyticsEtags.forRepository(analytics.get(), objectMapper);
+                if (AnalyticsEtags.matches(ifNoneMatch, etag)) {
+                    log.info("Repository analytics not modified for: {}/{} in {}ms", owner, repoName, processingTime);
+                    return notModified(etag, acceptEncoding);
+                }
+
+                // Encoded once per analysis version (and staleness); later views reuse the bytes
+                boolean stale = isStale(analytics.get().getAnalyzedAt(), RepoAnalyticsService.STALE_AFTER);
+                String bodyKey = "repository:" + owner + "/" + repoName + etag + (stale ? ";stale" : "");
+                AnalyticsResponseCache.EncodedResponse body = analyticsResponseCache.get(bodyKey, () -> {
+                    ApiResponseDto<RepoAnalyticsDto> response = ApiResponseDto.success(
+                            analytics.get(),
+                            "Repository analytics retrieved successfully"
+                    ).withStaleness(analytics.get().getAnalyzedAt(), RepoAnalyticsService.STALE_AFTER);
+                    return objectMapper.writeValueAsBytes(withoutRequestFields(response));
+                });
 
                 log.info("Successfully retrieved analytics for repository: {}/{} in {}ms",
                         owner, repoName, processingTime);
-                return ResponseEntity.ok(response);
+                return okEncoded(body, etag, analytics.get().getAnalyzedAt(), processingTime, acceptEncoding);
             } else {
                 ApiResponseDto<RepoAnalyticsDto> response = ApiResponseDto.error(
                         "REPOSITORY_NOT_FOUND",
@@ -280,7 +352,7 @@ public class AnalyticsController {
 
                 log.info("Successfully refreshed analytics for repository: {}/{} in {}ms",
                         owner, repoName, processingTime);
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
             } else {
                 ApiResponseDto<RepoAnalyticsDto> response = ApiResponseDto.error(
                         "REFRESH_FAILED",
@@ -333,7 +405,7 @@ public class AnalyticsController {
             response.setProcessingTimeMs(processingTime);
 
             log.info("Successfully retrieved {} trending repositories in {}ms", repositories.size(), processingTime);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(LISTING_CACHE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -378,7 +450,7 @@ public class AnalyticsController {
 
             log.info("Successfully retrieved {} repositories for language {} in {}ms",
                     repositories.size(), language, processingTime);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(LISTING_CACHE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -421,7 +493,7 @@ public class AnalyticsController {
             response.setProcessingTimeMs(processingTime);
 
             log.info("Successfully retrieved search analytics in {}ms", processingTime);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(STATS_CACHE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -438,6 +510,104 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Get live search traffic for the last 1, 5 and 15 minutes on this node
+     * GET /api/analytics/search/live
+     */
+    @GetMapping("/search/live")
+    public ResponseEntity<ApiResponseDto<LiveSearchMetricsDto>> getLiveSearchMetrics() {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            LiveSearchMetricsDto metrics = liveSearchMetrics.snapshot();
+
+            long processingTime = System.currentTimeMillis() - startTime;
+
+            ApiResponseDto<LiveSearchMetricsDto> response = ApiResponseDto.success(
+                    metrics,
+                    "Retrieved live search metrics"
+            );
+            response.setProcessingTimeMs(processingTime);
+
+            return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
+
+        } catch (Exception e) {
+            long processingTime = System.currentTimeMillis() - startTime;
+            log.error("Error retrieving live search metrics: {}", e.getMessage(), e);
+
+            ApiResponseDto<LiveSearchMetricsDto> response = ApiResponseDto.error(
+                    "SEARCH_ANALYTICS_ERROR",
+                    "Error retrieving live search metrics",
+                    e.getMessage()
+            );
+            response.setProcessingTimeMs(processingTime);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Stream live search metrics as server-sent "metrics" events
+     * GET /api/analytics/search/live/stream
+     */
+    @GetMapping(value = "/search/live/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLiveSearchMetrics() {
+        try {
+            return ResponseEntity.ok().cacheControl(NO_STORE).body(liveSearchMetrics.subscribe());
+        } catch (IllegalStateException e) {
+            log.warn("Rejecting live metrics stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            log.error("Error opening live metrics stream: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get search processing time percentiles (p50/p90/p99/p999) for any window
+     * GET /api/analytics/search/latency?from=2024-01-01T00:00&to=2024-01-02T00:00&searchType=REPOSITORY
+     */
+    @GetMapping("/search/latency")
+    public ResponseEntity<ApiResponseDto<SearchAnalyticsDto.LatencyWindowDto>> getSearchLatency(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) String searchType) {
+
+        long startTime = System.currentTimeMillis();
+
+        try {
+            LocalDateTime windowStart = from != null ? from : (to != null ? to : LocalDateTime.now()).minusHours(hours);
+            log.info("Fetching search latency percentiles from {} to {}", windowStart, to);
+
+            SearchAnalyticsDto.LatencyWindowDto latency =
+                    searchLogService.getProcessingTimePercentiles(windowStart, to, searchType);
+
+            long processingTime = System.currentTimeMillis() - startTime;
+
+            ApiResponseDto<SearchAnalyticsDto.LatencyWindowDto> response = ApiResponseDto.success(
+                    latency,
+                    String.format("Retrieved latency percentiles for %d searches", latency.getOverall().getCount())
+            );
+            response.setProcessingTimeMs(processingTime);
+
+            return ResponseEntity.ok().cacheControl(STATS_CACHE).body(response);
+
+        } catch (Exception e) {
+            long processingTime = System.currentTimeMillis() - startTime;
+            log.error("Error retrieving search latency percentiles: {}", e.getMessage(), e);
+
+            ApiResponseDto<SearchAnalyticsDto.LatencyWindowDto> response = ApiResponseDto.error(
+                    "SEARCH_ANALYTICS_ERROR",
+                    "Error retrieving search latency percentiles",
+                    e.getMessage()
+            );
+            response.setProcessingTimeMs(processingTime);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     // ======================== COMPARATIVE ANALYTICS ENDPOINTS ========================
 
     /**
@@ -445,7 +615,7 @@ public class AnalyticsController {
      * POST /api/analytics/users/compare
      */
     @PostMapping("/users/compare")
-    public ResponseEntity<ApiResponseDto<Map<String, UserAnalyticsDto>>> compareUsers(
+    public ResponseEntity<ApiResponseDto<ComparisonDto<UserAnalyticsDto>>> compareUsers(
             @RequestBody List<String> usernames) {
 
         long startTime = System.currentTimeMillis();
@@ -454,7 +624,7 @@ public class AnalyticsController {
             log.info("Comparing analytics for users: {}", usernames);
 
             if (usernames == null || usernames.isEmpty()) {
-                ApiResponseDto<Map<String, UserAnalyticsDto>> response = ApiResponseDto.error(
+                ApiResponseDto<ComparisonDto<UserAnalyticsDto>> response = ApiResponseDto.error(
                         "INVALID_INPUT",
                         "No usernames provided for comparison",
                         "Please provide a list of GitHub usernames to compare"
@@ -463,7 +633,7 @@ public class AnalyticsController {
             }
 
             if (usernames.size() > 10) {
-                ApiResponseDto<Map<String, UserAnalyticsDto>> response = ApiResponseDto.error(
+                ApiResponseDto<ComparisonDto<UserAnalyticsDto>> response = ApiResponseDto.error(
                         "TOO_MANY_USERS",
                         "Too many users for comparison",
                         "Maximum 10 users can be compared at once"
@@ -471,24 +641,24 @@ public class AnalyticsController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
 
-            Map<String, UserAnalyticsDto> comparisons = userAnalyticsService.compareUsers(usernames);
+            ComparisonDto<UserAnalyticsDto> comparisons = userAnalyticsService.compareUsers(usernames);
 
             long processingTime = System.currentTimeMillis() - startTime;
 
-            ApiResponseDto<Map<String, UserAnalyticsDto>> response = ApiResponseDto.success(
+            ApiResponseDto<ComparisonDto<UserAnalyticsDto>> response = ApiResponseDto.success(
                     comparisons,
-                    String.format("Compared %d users successfully", comparisons.size())
+                    String.format("Compared %d of %d users", comparisons.getResults().size(), comparisons.getItems().size())
             );
             response.setProcessingTimeMs(processingTime);
 
-            log.info("Successfully compared {} users in {}ms", comparisons.size(), processingTime);
-            return ResponseEntity.ok(response);
+            log.info("Compared {} of {} users in {}ms", comparisons.getResults().size(), comparisons.getItems().size(), processingTime);
+            return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             log.error("Error comparing users: {}", e.getMessage(), e);
 
-            ApiResponseDto<Map<String, UserAnalyticsDto>> response = ApiResponseDto.error(
+            ApiResponseDto<ComparisonDto<UserAnalyticsDto>> response = ApiResponseDto.error(
                     "COMPARISON_ERROR",
                     "Error comparing users",
                     e.getMessage()
@@ -504,7 +674,7 @@ public class AnalyticsController {
      * POST /api/analytics/repositories/compare
      */
     @PostMapping("/repositories/compare")
-    public ResponseEntity<ApiResponseDto<Map<String, RepoAnalyticsDto>>> compareRepositories(
+    public ResponseEntity<ApiResponseDto<ComparisonDto<RepoAnalyticsDto>>> compareRepositories(
             @RequestBody List<Map<String, String>> repositories) {
 
         long startTime = System.currentTimeMillis();
@@ -513,7 +683,7 @@ public class AnalyticsController {
             log.info("Comparing analytics for {} repositories", repositories.size());
 
             if (repositories == null || repositories.isEmpty()) {
-                ApiResponseDto<Map<String, RepoAnalyticsDto>> response = ApiResponseDto.error(
+                ApiResponseDto<ComparisonDto<RepoAnalyticsDto>> response = ApiResponseDto.error(
                         "INVALID_INPUT",
                         "No repositories provided for comparison",
                         "Please provide a list of repositories (owner/repo format) to compare"
@@ -522,7 +692,7 @@ public class AnalyticsController {
             }
 
             if (repositories.size() > 10) {
-                ApiResponseDto<Map<String, RepoAnalyticsDto>> response = ApiResponseDto.error(
+                ApiResponseDto<ComparisonDto<RepoAnalyticsDto>> response = ApiResponseDto.error(
                         "TOO_MANY_REPOSITORIES",
                         "Too many repositories for comparison",
                         "Maximum 10 repositories can be compared at once"
@@ -530,24 +700,24 @@ public class AnalyticsController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
 
-            Map<String, RepoAnalyticsDto> comparisons = repoAnalyticsService.compareRepositories(repositories);
+            ComparisonDto<RepoAnalyticsDto> comparisons = repoAnalyticsService.compareRepositories(repositories);
 
             long processingTime = System.currentTimeMillis() - startTime;
 
-            ApiResponseDto<Map<String, RepoAnalyticsDto>> response = ApiResponseDto.success(
+            ApiResponseDto<ComparisonDto<RepoAnalyticsDto>> response = ApiResponseDto.success(
                     comparisons,
-                    String.format("Compared %d repositories successfully", comparisons.size())
+                    String.format("Compared %d of %d repositories", comparisons.getResults().size(), comparisons.getItems().size())
             );
             response.setProcessingTimeMs(processingTime);
 
-            log.info("Successfully compared {} repositories in {}ms", comparisons.size(), processingTime);
-            return ResponseEntity.ok(response);
+            log.info("Compared {} of {} repositories in {}ms", comparisons.getResults().size(), comparisons.getItems().size(), processingTime);
+            return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             log.error("Error comparing repositories: {}", e.getMessage(), e);
 
-            ApiResponseDto<Map<String, RepoAnalyticsDto>> response = ApiResponseDto.error(
+            ApiResponseDto<ComparisonDto<RepoAnalyticsDto>> response = ApiResponseDto.error(
                     "COMPARISON_ERROR",
                     "Error comparing repositories",
                     e.getMessage()
@@ -582,7 +752,7 @@ public class AnalyticsController {
             response.setProcessingTimeMs(processingTime);
 
             log.info("Successfully retrieved dashboard analytics in {}ms", processingTime);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(STATS_CACHE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -621,7 +791,7 @@ public class AnalyticsController {
             response.setProcessingTimeMs(processingTime);
 
             log.info("Successfully retrieved language statistics in {}ms", processingTime);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(STATS_CACHE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -667,7 +837,7 @@ public class AnalyticsController {
             );
             response.setProcessingTimeMs(processingTime);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(NO_STORE).body(response);
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
@@ -682,4 +852,67 @@ public class AnalyticsController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-}
\ No newline at end of file
+
+    // ======================== HELPERS ========================
+
+    /**
+     * 200 response writing pre-encoded JSON bytes (gzip when accepted) with validators and a data age header
+     */
+    private ResponseEntity<byte[]> okEncoded(AnalyticsResponseCache.EncodedResponse body, String etag,
+                                             LocalDateTime computedAt, long processingTime, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(AnalyticsEtags.forEncoding(etag, gzip))
+                .cacheControl(ANALYTICS_CACHE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(SERVER_TIMING_HEADER, "app;dur=" + processingTime);
+        if (computedAt != null) {
+            long age = Math.max(0, Duration.between(computedAt, LocalDateTime.now()).getSeconds());
+            builder.header(DATA_AGE_HEADER, String.valueOf(age));
+        }
+
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return builder.body(body.json());
+    }
+
+    /**
+     * Cached bodies are shared by every later request, so they leave out the response time and
+     * processing time of the request that encoded them; the Date and Server-Timing headers carry those
+     */
+    private static <T> ApiResponseDto<T> withoutRequestFields(ApiResponseDto<T> response) {
+        response.setTimestamp(null);
+        response.setProcessingTimeMs(null);
+        return response;
+    }
+
+    private static boolean isStale(LocalDateTime computedAt, Duration staleAfter) {
+        return computedAt != null && computedAt.isBefore(LocalDateTime.now().minus(staleAfter));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 for a client that already holds the current version
+     */
+    private <T> ResponseEntity<T> notModified(String etag, String acceptEncoding) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(AnalyticsEtags.forEncoding(etag, acceptsGzip(acceptEncoding)))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(ANALYTICS_CACHE)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.gitanalyzer.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gitanalyzer.dto.RepoAnalyticsDto;
+import com.gitanalyzer.dto.UserAnalyticsDto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Strong entity tags for analytics responses, derived from the analysis version:
+ * the subject key, the second it was analyzed and a digest of the data as serialized.
+ * Only what clients receive goes in, so a DTO reloaded from a snapshot on another node or after a restart
+ * gets the same tag as the one computed in process.
+ * The gzip representation carries its own tag, as strong tags must differ between encodings.
+ */
+final class AnalyticsEtags {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    // Tags of the DTO instances the analytics cache is serving, so a hit does not serialize again
+    private static final Cache<Object, String> TAGS = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    private AnalyticsEtags() {
+    }
+
+    static String forRepository(RepoAnalyticsDto analytics, ObjectMapper objectMapper) {
+        return TAGS.get(analytics, dto -> build("r", analytics.getFullName(), analytics.getAnalyzedAt(),
+                digest(analytics, objectMapper)));
+    }
+
+    static String forUser(UserAnalyticsDto analytics, ObjectMapper objectMapper) {
+        return TAGS.get(analytics, dto -> build("u", analytics.getGithubUsername(), analytics.getUpdatedAt(),
+                digest(analytics, objectMapper)));
+    }
+
+    /**
+     * The tag for one encoding of a response
+     */
+    static String forEncoding(String etag, boolean gzip) {
+        return gzip ? etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"" : etag;
+    }
+
+    /**
+     * Whether an If-None-Match header value matches the tag (weak comparison, as RFC 9110 requires).
+     * Either encoding's tag matches, since both encode the same analysis version.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripEncoding(stripWeak(etag));
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripEncoding(stripWeak(value)).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String build(String prefix, String key, LocalDateTime analyzedAt, String digest) {
+        long version = analyzedAt != null ? analyzedAt.toEpochSecond(ZoneOffset.UTC) : 0;
+        int keyHash = key != null ? key.toLowerCase(Locale.ROOT).hashCode() : 0;
+        return "\"" + prefix + Integer.toHexString(keyHash) + "-" + Long.toHexString(version) + "-" + digest + "\"";
+    }
+
+    // Map entries are written in key order, so the digest does not depend on how a map was built
+    private static String digest(Object analytics, ObjectMapper objectMapper) {
+        try {
+            byte[] json = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsBytes(analytics);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not compute entity tag", e);
+        }
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String stripEncoding(String tag) {
+        return tag.endsWith(GZIP_SUFFIX + "\"")
+                ? tag.substring(0, tag.length() - GZIP_SUFFIX.length() - 1) + "\"" : tag;
+    }
+}
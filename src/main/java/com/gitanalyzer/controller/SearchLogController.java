@@ -1,5 +1,6 @@
 package com.gitanalyzer.controller;
 
+import com.gitanalyzer.config.ClientIpResolver;
 import com.gitanalyzer.model.UrlSearchLog;
 import com.gitanalyzer.service.SearchLogService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +19,9 @@ public class SearchLogController {
     @Autowired
     private SearchLogService searchLogService;
 
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     @PostMapping
     public ResponseEntity<Map<String, Object>> logGitHubSearch(
             @RequestBody Map<String, String> request,
@@ -40,15 +44,12 @@ public class SearchLogController {
             }
 
             // Extract client info
-            String ipAddress = getClientIpAddress(httpRequest);
+            String ipAddress = clientIpResolver.resolve(httpRequest);
             String userAgent = httpRequest.getHeader("User-Agent");
 
-            // Log the search
-            UrlSearchLog log = searchLogService.logSearch(githubUrl, ipAddress, userAgent);
-
-            // Calculate processing time
+            // Calculate processing time, then log the finished search without waiting on the database
             long processingTime = System.currentTimeMillis() - startTime;
-            searchLogService.updateLogStatus(log.getId(), "SUCCESS", (int) processingTime);
+            UrlSearchLog log = searchLogService.recordSearch(githubUrl, ipAddress, userAgent, "SUCCESS", (int) processingTime);
 
             // Create response
             Map<String, Object> response = new HashMap<>();
@@ -72,17 +73,6 @@ public class SearchLogController {
         }
     }
 
-    private String getClientIpAddress(HttpServletRequest request) {
-        String ipAddress = request.getHeader("X-Forwarded-For");
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("X-Real-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getRemoteAddr();
-        }
-        return ipAddress;
-    }
-
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
@@ -0,0 +1,39 @@
+package com.gitanalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisJobDto {
+
+    private String jobId;
+    private String jobType; // USER or REPOSITORY
+    private String target;  // username or owner/repo
+    private String status;  // QUEUED, RUNNING, SUCCEEDED, FAILED, DEAD
+    private Integer percent;
+    private String stage;
+    private String error;
+    private Integer attempts;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    // UserAnalyticsDto or RepoAnalyticsDto once the job has succeeded
+    private Object result;
+}
@@ -5,6 +5,8 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Data
@@ -18,11 +20,18 @@ public class ApiResponseDto<T> {
     private T data;
     private ErrorInfo error;
 
+    // Both left out of analytics bodies that are encoded once and served to many requests
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private LocalDateTime timestamp;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Long processingTimeMs;
 
+    // Set only for analytics responses: whether the data is past its refresh window (age goes in the X-Data-Age header)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -33,6 +42,16 @@ public class ApiResponseDto<T> {
         private String details;
     }
 
+    /**
+     * Mark whether the data, computed at the given time, is past its refresh window
+     */
+    public ApiResponseDto<T> withStaleness(LocalDateTime computedAt, Duration staleAfter) {
+        if (computedAt != null) {
+            this.stale = computedAt.isBefore(LocalDateTime.now().minus(staleAfter));
+        }
+        return this;
+    }
+
     // Static factory methods for common responses
     public static <T> ApiResponseDto<T> success(T data, String message) {
         return ApiResponseDto.<T>builder()
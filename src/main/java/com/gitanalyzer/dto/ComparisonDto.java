@@ -0,0 +1,41 @@
+package com.gitanalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ComparisonDto<T> {
+
+    // Analytics for every item that finished in time, in request order
+    private Map<String, T> results;
+
+    // Outcome of every requested item, including the ones missing from results
+    private Map<String, ItemStatus> items;
+
+    // False when at least one item failed or missed the deadline
+    private boolean complete;
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    public static final String STATUS_TIMEOUT = "TIMEOUT";
+    public static final String STATUS_ERROR = "ERROR";
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemStatus {
+        private String status; // OK, NOT_FOUND, TIMEOUT, ERROR
+        private String error;
+        private Long durationMs;
+    }
+}
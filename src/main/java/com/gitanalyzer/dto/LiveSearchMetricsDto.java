@@ -0,0 +1,48 @@
+package com.gitanalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LiveSearchMetricsDto {
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime generatedAt;
+
+    // Keyed by window length: 1m, 5m, 15m
+    private Map<String, WindowDto> windows;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WindowDto {
+        private Integer windowSeconds;
+        private Long totalSearches;
+        private Long successfulSearches;
+        private Double searchesPerSecond;
+        private Double successRate;
+        private Double averageProcessingTime;
+        private List<TargetCountDto> topUsers;
+        private List<TargetCountDto> topRepositories;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TargetCountDto {
+        private String target; // username or owner/repo
+        private Long searchCount;
+    }
+}
@@ -31,6 +31,8 @@ public class SearchAnalyticsDto {
     private Double averageProcessingTime;
     private Integer maxProcessingTime;
     private Integer minProcessingTime;
+    private LatencyPercentilesDto processingTimePercentiles;
+    private Map<String, LatencyPercentilesDto> processingTimePercentilesBySearchType;
 
     @Data
     @Builder
@@ -66,4 +68,30 @@ public class SearchAnalyticsDto {
         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
         private LocalDateTime lastSearched;
     }
+
+    // Processing time percentiles in ms, each accurate to within about 6% (histogram bucket resolution)
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencyPercentilesDto {
+        private Long count;
+        private Long p50;
+        private Long p90;
+        private Long p99;
+        private Long p999;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencyWindowDto {
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        private LocalDateTime from;
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        private LocalDateTime to;
+        private LatencyPercentilesDto overall;
+        private Map<String, LatencyPercentilesDto> bySearchType;
+    }
 }
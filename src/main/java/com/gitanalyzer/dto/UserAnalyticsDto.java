@@ -42,6 +42,9 @@ public class UserAnalyticsDto {
     private List<TopRepositoryDto> topRepositories;
     private List<LanguageStatsDto> languageBreakdown;
 
+    // Set when a section missed its deadline or failed and holds empty values; such results are never cached
+    private boolean partial;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,104 @@
+package com.gitanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Durable analysis work item. Workers on every node claim QUEUED rows with
+ * FOR UPDATE SKIP LOCKED and hold a time-limited lease while they run them.
+ */
+@Entity
+@Table(name = "analysis_jobs",
+        indexes = {
+                @Index(name = "idx_analysis_jobs_claim", columnList = "status, available_at"),
+                @Index(name = "idx_analysis_jobs_target", columnList = "target_key, status")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Public identifier handed to API clients
+    @Column(name = "job_id", length = 36, nullable = false, unique = true)
+    private String jobId;
+
+    // USER or REPOSITORY
+    @Column(name = "job_type", length = 20, nullable = false)
+    private String jobType;
+
+    // username or owner/repo as submitted
+    @Column(name = "target", length = 255, nullable = false)
+    private String target;
+
+    // Lowercased type:target, used to deduplicate active jobs
+    @Column(name = "target_key", length = 300, nullable = false)
+    private String targetKey;
+
+    // QUEUED, RUNNING, SUCCEEDED, FAILED or DEAD (retries exhausted)
+    @Column(name = "status", length = 20, nullable = false)
+    private String status;
+
+    @Column(name = "priority", nullable = false)
+    private Integer priority = 0;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "max_attempts", nullable = false)
+    private Integer maxAttempts = 3;
+
+    @Column(name = "percent")
+    private Integer percent = 0;
+
+    @Column(name = "stage", length = 255)
+    private String stage;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    // Final analytics DTO as JSON, recorded when the job succeeds
+    @Column(name = "result", columnDefinition = "TEXT")
+    private String result;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // Not claimable before this time (retry backoff)
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    private void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) createdAt = now;
+        if (availableAt == null) availableAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    private void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
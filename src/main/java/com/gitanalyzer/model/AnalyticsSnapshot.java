@@ -0,0 +1,53 @@
+package com.gitanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized analytics DTO (gzip-compressed JSON) for a repository or user.
+ * Backs the in-process analytics cache so restarted and new nodes start warm.
+ */
+@Entity
+@Table(name = "analytics_snapshots",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_analytics_snapshots_key",
+                columnNames = {"snapshot_type", "snapshot_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsSnapshot {
+
+    public static final String TYPE_REPOSITORY = "REPOSITORY";
+    public static final String TYPE_USER = "USER";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // REPOSITORY or USER
+    @Column(name = "snapshot_type", length = 20, nullable = false)
+    private String snapshotType;
+
+    // Lowercased owner/repo or username
+    @Column(name = "snapshot_key", length = 255, nullable = false)
+    private String snapshotKey;
+
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    // analyzedAt of a repository DTO, updatedAt of a user DTO
+    @Column(name = "analyzed_at")
+    private LocalDateTime analyzedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+}
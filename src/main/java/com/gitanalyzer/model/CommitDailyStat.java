@@ -0,0 +1,65 @@
+package com.gitanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per repository / day / hour / author rollup of commit activity.
+ * Maintained incrementally on ingest so repository analytics never scan raw commits.
+ */
+@Entity
+@Table(name = "commit_daily_stats",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_commit_daily_stats_bucket",
+                columnNames = {"repository_id", "stat_date", "hour_of_day", "author_name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommitDailyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Foreign key relationship with Repository
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "repository_id", nullable = false)
+    @JsonBackReference
+    private Repository repository;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "hour_of_day", nullable = false)
+    private Integer hourOfDay;
+
+    // Empty string when the commit has no author name (keeps the unique key usable)
+    @Column(name = "author_name", length = 255, nullable = false)
+    private String authorName;
+
+    @Column(name = "commit_count", nullable = false)
+    private Integer commitCount;
+
+    @Column(name = "additions", nullable = false)
+    private Integer additions;
+
+    @Column(name = "deletions", nullable = false)
+    private Integer deletions;
+
+    @Column(name = "changed_files", nullable = false)
+    private Integer changedFiles;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+}
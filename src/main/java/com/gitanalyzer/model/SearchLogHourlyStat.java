@@ -0,0 +1,60 @@
+package com.gitanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Per hour / search type rollup of url_search_logs.
+ * Maintained as logs are written so search analytics never scan raw log rows.
+ */
+@Entity
+@Table(name = "search_log_hourly_stats",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_search_log_hourly_stats_bucket",
+                columnNames = {"bucket_hour", "search_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchLogHourlyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Start of the hour the searches fall in
+    @Column(name = "bucket_hour", nullable = false)
+    private LocalDateTime bucketHour;
+
+    // Empty string when the log has no search type (keeps the unique key usable)
+    @Column(name = "search_type", length = 50, nullable = false)
+    private String searchType;
+
+    @Column(name = "total_count", nullable = false)
+    private Long totalCount;
+
+    @Column(name = "success_count", nullable = false)
+    private Long successCount;
+
+    // Searches that recorded a processing time; the denominator for the average
+    @Column(name = "timed_count", nullable = false)
+    private Long timedCount;
+
+    @Column(name = "processing_time_sum", nullable = false)
+    private Long processingTimeSum;
+
+    @Column(name = "processing_time_min")
+    private Integer processingTimeMin;
+
+    @Column(name = "processing_time_max")
+    private Integer processingTimeMax;
+
+    // LatencyHistogram bucket counts of the timed searches; merged element-wise, null for backfilled hours
+    @Column(name = "latency_buckets", columnDefinition = "bigint[]")
+    private Long[] latencyBuckets;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.gitanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Per hour search counts for each searched user or repository, used for top-N lists
+ */
+@Entity
+@Table(name = "search_log_hourly_targets",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_search_log_hourly_targets_bucket",
+                columnNames = {"bucket_hour", "search_type", "username", "repo_name"}),
+        indexes = @Index(name = "idx_search_log_hourly_targets_type_hour", columnList = "search_type, bucket_hour"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchLogHourlyTarget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private LocalDateTime bucketHour;
+
+    @Column(name = "search_type", length = 50, nullable = false)
+    private String searchType;
+
+    @Column(name = "username", length = 100, nullable = false)
+    private String username;
+
+    // Empty string for user profile searches
+    @Column(name = "repo_name", length = 255, nullable = false)
+    private String repoName;
+
+    @Column(name = "search_count", nullable = false)
+    private Long searchCount;
+
+    @Column(name = "last_searched", nullable = false)
+    private LocalDateTime lastSearched;
+}
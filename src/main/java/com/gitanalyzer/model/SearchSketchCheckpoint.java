@@ -0,0 +1,44 @@
+package com.gitanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized in-memory search sketch for one node and one time window.
+ * Sketches merge, so any node can combine every node's checkpoints into cluster-wide answers.
+ */
+@Entity
+@Table(name = "search_sketch_checkpoints",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_search_sketch_checkpoints_key",
+                columnNames = {"node_id", "sketch_type", "window_start"}),
+        indexes = @Index(name = "idx_search_sketch_checkpoints_window", columnList = "window_start"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSketchCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", length = 36, nullable = false)
+    private String nodeId;
+
+    @Column(name = "sketch_type", length = 50, nullable = false)
+    private String sketchType;
+
+    // First day the window covers
+    @Column(name = "window_start", nullable = false)
+    private LocalDate windowStart;
+
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor       // Generates no-argument constructor
 public class UrlSearchLog {
 
+    // Sequence rather than identity: the table is range partitioned and its primary key is (id, search_timestamp)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "url_search_logs_id_seq")
+    @SequenceGenerator(name = "url_search_logs_id_seq", sequenceName = "url_search_logs_id_seq", allocationSize = 1)
     private Long id;
 
     @Column(name = "github_url", length = 1000, nullable = false)
@@ -58,10 +60,8 @@ public class UrlSearchLog {
     // PrePersist to ensure timestamp is set
     @PrePersist
     private void prePersist() {
-
-    }
-
-
-    public void setResponseStatus(String pending) {
+        if (searchTimestamp == null) {
+            searchTimestamp = LocalDateTime.now();
+        }
     }
 }
@@ -0,0 +1,72 @@
+package com.gitanalyzer.repository;
+
+import com.gitanalyzer.model.AnalysisJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
+
+    Optional<AnalysisJob> findByJobId(String jobId);
+
+    // Active (queued or running) job for a target, if any
+    Optional<AnalysisJob> findFirstByTargetKeyAndStatusIn(String targetKey, Collection<String> statuses);
+
+    List<AnalysisJob> findByStatusOrderByUpdatedAtDesc(String status, Pageable pageable);
+
+    long countByStatus(String status);
+
+    // Lock the next claimable jobs; rows locked by other workers are skipped rather than waited on
+    @Query(value = "SELECT id FROM analysis_jobs " +
+            "WHERE status = 'QUEUED' AND available_at <= now() " +
+            "ORDER BY priority DESC, available_at, id " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockClaimable(@Param("limit") int limit);
+
+    // Record progress and extend the lease, only while this worker still holds it
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.percent = :percent, j.stage = :stage, j.leaseExpiresAt = :leaseExpiresAt, " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.status = 'RUNNING' AND j.leaseOwner = :owner")
+    int heartbeat(@Param("id") Long id,
+                  @Param("owner") String owner,
+                  @Param("percent") Integer percent,
+                  @Param("stage") String stage,
+                  @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    // Finish a job, only while this worker still holds its lease
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.status = :status, j.percent = :percent, j.stage = :stage, j.error = :error, " +
+            "j.result = :result, j.availableAt = :availableAt, j.finishedAt = :finishedAt, j.leaseOwner = NULL, j.leaseExpiresAt = NULL, " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.status = 'RUNNING' AND j.leaseOwner = :owner")
+    int complete(@Param("id") Long id,
+                 @Param("owner") String owner,
+                 @Param("status") String status,
+                 @Param("percent") Integer percent,
+                 @Param("stage") String stage,
+                 @Param("error") String error,
+                 @Param("result") String result,
+                 @Param("availableAt") LocalDateTime availableAt,
+                 @Param("finishedAt") LocalDateTime finishedAt);
+
+    // Running jobs whose worker stopped renewing its lease
+    @Query("SELECT j FROM AnalysisJob j WHERE j.status = 'RUNNING' AND j.leaseExpiresAt < :now")
+    List<AnalysisJob> findExpiredLeases(@Param("now") LocalDateTime now);
+
+    // Transaction-scoped advisory lock so only one node at a time runs a cluster-wide task
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    // Drop finished jobs past their retention; dead letters are kept for inspection
+    @Modifying
+    @Query("DELETE FROM AnalysisJob j WHERE j.status IN ('SUCCEEDED', 'FAILED') AND j.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,35 @@
+package com.gitanalyzer.repository;
+
+import com.gitanalyzer.model.AnalyticsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AnalyticsSnapshotRepository extends JpaRepository<AnalyticsSnapshot, Long> {
+
+    Optional<AnalyticsSnapshot> findBySnapshotTypeAndSnapshotKey(String snapshotType, String snapshotKey);
+
+    // Insert or replace the snapshot for a key
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO analytics_snapshots (snapshot_type, snapshot_key, payload, analyzed_at, updated_at) " +
+            "VALUES (:type, :key, :payload, :analyzedAt, now()) " +
+            "ON CONFLICT (snapshot_type, snapshot_key) DO UPDATE SET " +
+            "payload = EXCLUDED.payload, analyzed_at = EXCLUDED.analyzed_at, updated_at = now()",
+            nativeQuery = true)
+    void upsert(@Param("type") String type,
+                @Param("key") String key,
+                @Param("payload") byte[] payload,
+                @Param("analyzedAt") LocalDateTime analyzedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AnalyticsSnapshot s WHERE s.snapshotType = :type AND s.snapshotKey = :key")
+    void deleteByTypeAndKey(@Param("type") String type, @Param("key") String key);
+}
@@ -0,0 +1,58 @@
+package com.gitanalyzer.repository;
+
+import com.gitanalyzer.model.CommitDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CommitDailyStatRepository extends JpaRepository<CommitDailyStat, Long> {
+
+    // All rollup buckets for a repository, newest first
+    List<CommitDailyStat> findByRepositoryIdOrderByStatDateDescHourOfDayDesc(Long repositoryId);
+
+    // Check if a repository already has a rollup
+    boolean existsByRepositoryId(Long repositoryId);
+
+    // Add one ingest batch to a bucket (insert or increment)
+    @Modifying
+    @Query(value = "INSERT INTO commit_daily_stats " +
+            "(repository_id, stat_date, hour_of_day, author_name, commit_count, additions, deletions, changed_files, updated_at) " +
+            "VALUES (:repoId, :statDate, :hourOfDay, :authorName, :commitCount, :additions, :deletions, :changedFiles, now()) " +
+            "ON CONFLICT (repository_id, stat_date, hour_of_day, author_name) DO UPDATE SET " +
+            "commit_count = commit_daily_stats.commit_count + EXCLUDED.commit_count, " +
+            "additions = commit_daily_stats.additions + EXCLUDED.additions, " +
+            "deletions = commit_daily_stats.deletions + EXCLUDED.deletions, " +
+            "changed_files = commit_daily_stats.changed_files + EXCLUDED.changed_files, " +
+            "updated_at = now()",
+            nativeQuery = true)
+    void incrementBucket(@Param("repoId") Long repoId,
+                         @Param("statDate") LocalDate statDate,
+                         @Param("hourOfDay") Integer hourOfDay,
+                         @Param("authorName") String authorName,
+                         @Param("commitCount") Integer commitCount,
+                         @Param("additions") Integer additions,
+                         @Param("deletions") Integer deletions,
+                         @Param("changedFiles") Integer changedFiles);
+
+    // Drop the rollup for a repository (used before a rebuild)
+    @Modifying
+    @Query("DELETE FROM CommitDailyStat s WHERE s.repository.id = :repoId")
+    void deleteByRepositoryId(@Param("repoId") Long repoId);
+
+    // Rebuild the rollup for a repository from raw commits in one statement
+    @Modifying
+    @Query(value = "INSERT INTO commit_daily_stats " +
+            "(repository_id, stat_date, hour_of_day, author_name, commit_count, additions, deletions, changed_files, updated_at) " +
+            "SELECT c.repository_id, CAST(c.author_date AS date), CAST(EXTRACT(HOUR FROM c.author_date) AS integer), " +
+            "COALESCE(c.author_name, ''), COUNT(*), COALESCE(SUM(c.additions), 0), COALESCE(SUM(c.deletions), 0), " +
+            "COALESCE(SUM(c.changed_files), 0), now() " +
+            "FROM commits c WHERE c.repository_id = :repoId AND c.author_date IS NOT NULL " +
+            "GROUP BY c.repository_id, CAST(c.author_date AS date), CAST(EXTRACT(HOUR FROM c.author_date) AS integer), COALESCE(c.author_name, '')",
+            nativeQuery = true)
+    int rebuildFromCommits(@Param("repoId") Long repoId);
+}
@@ -1,13 +1,16 @@
 package com.gitanalyzer.repository;
 
 import com.gitanalyzer.model.Commit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 
 
@@ -56,6 +59,10 @@ public interface CommitRepository extends JpaRepository<Commit, Long> {
     // Check if commit exists
     boolean existsByCommitSha(String commitSha);
 
+    // Which of the given SHAs are already stored, in one query
+    @Query("SELECT c.commitSha FROM Commit c WHERE c.commitSha IN :shas")
+    Set<String> findExistingShas(@Param("shas") Collection<String> shas);
+
     List<Commit> findByRepository_User_GithubUsernameAndCommitterDateAfterOrderByCommitterDateDesc(
             String githubUsername, LocalDateTime after);
 
@@ -65,4 +72,23 @@ public interface CommitRepository extends JpaRepository<Commit, Long> {
     // Count commits by repository
     @Query("SELECT COUNT(c) FROM Commit c WHERE c.repository.id = :repositoryId")
     int countByRepositoryId(@Param("repositoryId") Long repositoryId);
-}
\ No newline at end of file
+
+    // Totals and first/last commit date for a repository (single row)
+    @Query("SELECT COUNT(c), SUM(c.additions), SUM(c.deletions), SUM(c.changedFiles), MIN(c.authorDate), MAX(c.authorDate) " +
+            "FROM Commit c WHERE c.repository.id = :repoId")
+    List<Object[]> getRepositoryCommitTotals(@Param("repoId") Long repoId);
+
+    // Largest commits by additions + deletions (use a Pageable to limit)
+    @Query("SELECT c FROM Commit c WHERE c.repository.id = :repoId AND c.additions IS NOT NULL AND c.deletions IS NOT NULL " +
+            "ORDER BY (c.additions + c.deletions) DESC")
+    List<Commit> findTopCommitsByImpact(@Param("repoId") Long repoId, Pageable pageable);
+
+    // Per-commit metrics only (no message/SHA), used to load the in-memory column store
+    @Query("SELECT c.id, c.authorDate, c.additions, c.deletions, c.changedFiles, c.authorName " +
+            "FROM Commit c WHERE c.repository.id = :repoId")
+    List<Object[]> findCommitMetricsByRepositoryId(@Param("repoId") Long repoId);
+
+    // Commit count and highest commit id, used to validate on-disk commit segments
+    @Query("SELECT COUNT(c), MAX(c.id) FROM Commit c WHERE c.repository.id = :repoId")
+    List<Object[]> getCommitCountAndMaxId(@Param("repoId") Long repoId);
+}
@@ -24,6 +24,11 @@ public interface RepositoryRepository extends JpaRepository<Repository, Long> {
     // Find repository by user and repo name
     Optional<Repository> findByUserGithubUsernameAndRepoName(String githubUsername, String repoName);
 
+    // Find repository by user and repo name in any letter case, with its owner loaded
+    @Query("SELECT r FROM Repository r JOIN FETCH r.user u " +
+            "WHERE LOWER(u.githubUsername) = LOWER(:username) AND LOWER(r.repoName) = LOWER(:repoName)")
+    List<Repository> findByOwnerAndNameIgnoreCase(@Param("username") String githubUsername, @Param("repoName") String repoName);
+
     // Find repositories by programming language
     List<Repository> findByLanguageOrderByStarsCountDesc(String language);
 
@@ -0,0 +1,103 @@
+package com.gitanalyzer.repository;
+
+import com.gitanalyzer.model.SearchLogHourlyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SearchLogHourlyStatRepository extends JpaRepository<SearchLogHourlyStat, Long> {
+
+    // Per hour totals across search types as (hour, total, successful, timed, time sum, min time, max time)
+    @Query("SELECT s.bucketHour, SUM(s.totalCount), SUM(s.successCount), SUM(s.timedCount), SUM(s.processingTimeSum), " +
+            "MIN(s.processingTimeMin), MAX(s.processingTimeMax) FROM SearchLogHourlyStat s " +
+            "WHERE s.bucketHour >= :since GROUP BY s.bucketHour ORDER BY s.bucketHour")
+    List<Object[]> getHourlyTotals(@Param("since") LocalDateTime since);
+
+    // Add one write batch to a bucket (insert or increment)
+    @Modifying
+    @Query(value = "INSERT INTO search_log_hourly_stats " +
+            "(bucket_hour, search_type, total_count, success_count, timed_count, processing_time_sum, " +
+            "processing_time_min, processing_time_max, latency_buckets, updated_at) " +
+            "VALUES (:bucketHour, :searchType, :totalCount, :successCount, :timedCount, :timeSum, CAST(:timeMin AS integer), CAST(:timeMax AS integer), " +
+            "CAST(:latencyBuckets AS bigint[]), now()) " +
+            "ON CONFLICT (bucket_hour, search_type) DO UPDATE SET " +
+            "total_count = search_log_hourly_stats.total_count + EXCLUDED.total_count, " +
+            "success_count = search_log_hourly_stats.success_count + EXCLUDED.success_count, " +
+            "timed_count = search_log_hourly_stats.timed_count + EXCLUDED.timed_count, " +
+            "processing_time_sum = search_log_hourly_stats.processing_time_sum + EXCLUDED.processing_time_sum, " +
+            "processing_time_min = LEAST(search_log_hourly_stats.processing_time_min, EXCLUDED.processing_time_min), " +
+            "processing_time_max = GREATEST(search_log_hourly_stats.processing_time_max, EXCLUDED.processing_time_max), " +
+            "latency_buckets = ARRAY(SELECT COALESCE(t.a, 0) + COALESCE(t.b, 0) " +
+            "FROM unnest(COALESCE(search_log_hourly_stats.latency_buckets, '{}'), EXCLUDED.latency_buckets) WITH ORDINALITY AS t(a, b, i) ORDER BY t.i), " +
+            "updated_at = now()",
+            nativeQuery = true)
+    void incrementBucket(@Param("bucketHour") LocalDateTime bucketHour,
+                         @Param("searchType") String searchType,
+                         @Param("totalCount") Long totalCount,
+                         @Param("successCount") Long successCount,
+                         @Param("timedCount") Long timedCount,
+                         @Param("timeSum") Long timeSum,
+                         @Param("timeMin") Integer timeMin,
+                         @Param("timeMax") Integer timeMax,
+                         @Param("latencyBuckets") String latencyBuckets);
+
+    // Latency histogram merged over [from, to) per search type, as (search type, bucket index, count); index is 1-based
+    @Query(value = "SELECT s.search_type, CAST(b.i AS integer), CAST(SUM(b.count) AS bigint) " +
+            "FROM search_log_hourly_stats s CROSS JOIN LATERAL unnest(s.latency_buckets) WITH ORDINALITY AS b(count, i) " +
+            "WHERE s.bucket_hour >= :from AND s.bucket_hour < :to AND b.count > 0 " +
+            "GROUP BY s.search_type, b.i",
+            nativeQuery = true)
+    List<Object[]> getLatencyBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Build the rollup from raw logs in one statement (backfill for logs written before the rollup existed)
+    @Modifying
+    @Query(value = "INSERT INTO search_log_hourly_stats " +
+            "(bucket_hour, search_type, total_count, success_count, timed_count, processing_time_sum, " +
+            "processing_time_min, processing_time_max, updated_at) " +
+            "SELECT date_trunc('hour', l.search_timestamp), COALESCE(l.search_type, ''), COUNT(*), " +
+            "COUNT(*) FILTER (WHERE l.response_status = 'SUCCESS'), COUNT(l.processing_time_ms), " +
+            "COALESCE(SUM(l.processing_time_ms), 0), MIN(l.processing_time_ms), MAX(l.processing_time_ms), now() " +
+            "FROM url_search_logs l " +
+            "GROUP BY date_trunc('hour', l.search_timestamp), COALESCE(l.search_type, '')",
+            nativeQuery = true)
+    int rebuildFromLogs();
+
+    // Add stat buckets missing for raw logs in [from, to), leaving existing buckets alone
+    @Modifying
+    @Query(value = "INSERT INTO search_log_hourly_stats " +
+            "(bucket_hour, search_type, total_count, success_count, timed_count, processing_time_sum, " +
+            "processing_time_min, processing_time_max, updated_at) " +
+            "SELECT date_trunc('hour', l.search_timestamp), COALESCE(l.search_type, ''), COUNT(*), " +
+            "COUNT(*) FILTER (WHERE l.response_status = 'SUCCESS'), COUNT(l.processing_time_ms), " +
+            "COALESCE(SUM(l.processing_time_ms), 0), MIN(l.processing_time_ms), MAX(l.processing_time_ms), now() " +
+            "FROM url_search_logs l " +
+            "WHERE l.search_timestamp >= :from AND l.search_timestamp < :to " +
+            "GROUP BY date_trunc('hour', l.search_timestamp), COALESCE(l.search_type, '') " +
+            "ON CONFLICT (bucket_hour, search_type) DO NOTHING",
+            nativeQuery = true)
+    int fillMissingFromLogs(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Processing times of raw logs in [from, to) whose bucket has no latency histogram yet,
+    // as (hour, search type, processing time, count)
+    @Query(value = "SELECT date_trunc('hour', l.search_timestamp), COALESCE(l.search_type, ''), l.processing_time_ms, COUNT(*) " +
+            "FROM url_search_logs l JOIN search_log_hourly_stats s " +
+            "ON s.bucket_hour = date_trunc('hour', l.search_timestamp) AND s.search_type = COALESCE(l.search_type, '') " +
+            "WHERE l.search_timestamp >= :from AND l.search_timestamp < :to " +
+            "AND l.processing_time_ms IS NOT NULL AND s.latency_buckets IS NULL " +
+            "GROUP BY date_trunc('hour', l.search_timestamp), COALESCE(l.search_type, ''), l.processing_time_ms",
+            nativeQuery = true)
+    List<Object[]> getUnbucketedProcessingTimes(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "UPDATE search_log_hourly_stats SET latency_buckets = CAST(:latencyBuckets AS bigint[]), updated_at = now() " +
+            "WHERE bucket_hour = :bucketHour AND search_type = :searchType AND latency_buckets IS NULL",
+            nativeQuery = true)
+    int setLatencyBuckets(@Param("bucketHour") LocalDateTime bucketHour,
+                          @Param("searchType") String searchType,
+                          @Param("latencyBuckets") String latencyBuckets);
+}
@@ -0,0 +1,69 @@
+package com.gitanalyzer.repository;
+
+import com.gitanalyzer.model.SearchLogHourlyTarget;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SearchLogHourlyTargetRepository extends JpaRepository<SearchLogHourlyTarget, Long> {
+
+    // Top searched users since a time as (username, count, last searched)
+    @Query("SELECT t.username, SUM(t.searchCount), MAX(t.lastSearched) FROM SearchLogHourlyTarget t " +
+            "WHERE t.searchType = 'USER_PROFILE' AND t.bucketHour >= :since " +
+            "GROUP BY t.username ORDER BY SUM(t.searchCount) DESC")
+    List<Object[]> getTopUsers(@Param("since") LocalDateTime since, Pageable pageable);
+
+    // Top searched repositories since a time as (owner, repo, count, last searched)
+    @Query("SELECT t.username, t.repoName, SUM(t.searchCount), MAX(t.lastSearched) FROM SearchLogHourlyTarget t " +
+            "WHERE t.searchType = 'REPOSITORY' AND t.bucketHour >= :since " +
+            "GROUP BY t.username, t.repoName ORDER BY SUM(t.searchCount) DESC")
+    List<Object[]> getTopRepositories(@Param("since") LocalDateTime since, Pageable pageable);
+
+    // Add one write batch to a target's bucket (insert or increment)
+    @Modifying
+    @Query(value = "INSERT INTO search_log_hourly_targets " +
+            "(bucket_hour, search_type, username, repo_name, search_count, last_searched) " +
+            "VALUES (:bucketHour, :searchType, :username, :repoName, :searchCount, :lastSearched) " +
+            "ON CONFLICT (bucket_hour, search_type, username, repo_name) DO UPDATE SET " +
+            "search_count = search_log_hourly_targets.search_count + EXCLUDED.search_count, " +
+            "last_searched = GREATEST(search_log_hourly_targets.last_searched, EXCLUDED.last_searched)",
+            nativeQuery = true)
+    void incrementBucket(@Param("bucketHour") LocalDateTime bucketHour,
+                         @Param("searchType") String searchType,
+                         @Param("username") String username,
+                         @Param("repoName") String repoName,
+                         @Param("searchCount") Long searchCount,
+                         @Param("lastSearched") LocalDateTime lastSearched);
+
+    // Build the rollup from raw logs in one statement (backfill for logs written before the rollup existed)
+    @Modifying
+    @Query(value = "INSERT INTO search_log_hourly_targets " +
+            "(bucket_hour, search_type, username, repo_name, search_count, last_searched) " +
+            "SELECT date_trunc('hour', l.search_timestamp), l.search_type, l.extracted_username, " +
+            "COALESCE(l.extracted_repo, ''), COUNT(*), MAX(l.search_timestamp) " +
+            "FROM url_search_logs l " +
+            "WHERE l.search_type IN ('USER_PROFILE', 'REPOSITORY') AND l.extracted_username IS NOT NULL " +
+            "GROUP BY date_trunc('hour', l.search_timestamp), l.search_type, l.extracted_username, COALESCE(l.extracted_repo, '')",
+            nativeQuery = true)
+    int rebuildFromLogs();
+
+    // Add target buckets missing for raw logs in [from, to), leaving existing buckets alone
+    @Modifying
+    @Query(value = "INSERT INTO search_log_hourly_targets " +
+            "(bucket_hour, search_type, username, repo_name, search_count, last_searched) " +
+            "SELECT date_trunc('hour', l.search_timestamp), l.search_type, l.extracted_username, " +
+            "COALESCE(l.extracted_repo, ''), COUNT(*), MAX(l.search_timestamp) " +
+            "FROM url_search_logs l " +
+            "WHERE l.search_timestamp >= :from AND l.search_timestamp < :to " +
+            "AND l.search_type IN ('USER_PROFILE', 'REPOSITORY') AND l.extracted_username IS NOT NULL " +
+            "GROUP BY date_trunc('hour', l.search_timestamp), l.search_type, l.extracted_username, COALESCE(l.extracted_repo, '') " +
+            "ON CONFLICT (bucket_hour, search_type, username, repo_name) DO NOTHING",
+            nativeQuery = true)
+    int fillMissingFromLogs(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,37 @@
+package com.gitanalyzer.repository;
+
+import com.gitanalyzer.model.SearchSketchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SearchSketchCheckpointRepository extends JpaRepository<SearchSketchCheckpoint, Long> {
+
+    // Checkpoints written by other nodes (or earlier runs) for recent windows
+    List<SearchSketchCheckpoint> findByNodeIdNotAndWindowStartGreaterThanEqual(String nodeId, LocalDate since);
+
+    // Insert or replace a node's checkpoint for a window
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO search_sketch_checkpoints (node_id, sketch_type, window_start, payload, updated_at) " +
+            "VALUES (:nodeId, :type, :windowStart, :payload, now()) " +
+            "ON CONFLICT (node_id, sketch_type, window_start) DO UPDATE SET " +
+            "payload = EXCLUDED.payload, updated_at = now()",
+            nativeQuery = true)
+    void upsert(@Param("nodeId") String nodeId,
+                @Param("type") String type,
+                @Param("windowStart") LocalDate windowStart,
+                @Param("payload") byte[] payload);
+
+    // Drop windows past retention
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SearchSketchCheckpoint c WHERE c.windowStart < :before")
+    int deleteByWindowStartBefore(@Param("before") LocalDate before);
+}
@@ -1,6 +1,7 @@
 package com.gitanalyzer.repository;
 
 import com.gitanalyzer.model.UrlSearchLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,6 +37,14 @@ public interface UrlSearchLogRepository extends JpaRepository<UrlSearchLog, Long
     @Query("SELECT u.extractedUsername, COUNT(u) FROM UrlSearchLog u WHERE u.extractedUsername IS NOT NULL GROUP BY u.extractedUsername ORDER BY COUNT(u) DESC")
     List<Object[]> getMostSearchedUsers();
 
+    // Get the top N most searched users
+    @Query("SELECT u.extractedUsername, COUNT(u) FROM UrlSearchLog u WHERE u.extractedUsername IS NOT NULL GROUP BY u.extractedUsername ORDER BY COUNT(u) DESC")
+    List<Object[]> getMostSearchedUsers(Pageable pageable);
+
+    // Get the top N most searched repositories as (owner, repo, count)
+    @Query("SELECT u.extractedUsername, u.extractedRepo, COUNT(u) FROM UrlSearchLog u WHERE u.extractedUsername IS NOT NULL AND u.extractedRepo IS NOT NULL GROUP BY u.extractedUsername, u.extractedRepo ORDER BY COUNT(u) DESC")
+    List<Object[]> getMostSearchedRepositories(Pageable pageable);
+
     // Get search type statistics
     @Query("SELECT u.searchType, COUNT(u) FROM UrlSearchLog u GROUP BY u.searchType")
     List<Object[]> getSearchTypeStats();
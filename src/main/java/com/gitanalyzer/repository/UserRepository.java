@@ -15,6 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find user by GitHub username
     Optional<User> findByGithubUsername(String githubUsername);
 
+    // Find user by GitHub username in any letter case, as GitHub matches logins
+    Optional<User> findFirstByGithubUsernameIgnoreCase(String githubUsername);
+
     // Check if user exists by username
     boolean existsByGithubUsername(String githubUsername);
 
@@ -43,6 +46,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT DISTINCT u FROM User u JOIN u.repositories r WHERE r.lastPushAt > :since")
     List<User> findActiveUsersSince(@Param("since") LocalDateTime since);
 
+    // Find users whose profile data has not been refreshed since the given time
+    @Query("SELECT u FROM User u WHERE u.updatedAt IS NULL OR u.updatedAt < :before")
+    List<User> findUsersNeedingRefresh(@Param("before") LocalDateTime before);
+
     // Count users by location
     @Query("SELECT u.location, COUNT(u) FROM User u WHERE u.location IS NOT NULL GROUP BY u.location")
     List<Object[]> countUsersByLocation();
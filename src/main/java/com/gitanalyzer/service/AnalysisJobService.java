@@ -0,0 +1,520 @@
+package com.gitanalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gitanalyzer.dto.AnalysisJobDto;
+import com.gitanalyzer.model.AnalysisJob;
+import com.gitanalyzer.repository.AnalysisJobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Durable analysis job queue backed by the analysis_jobs table.
+ * Every node polls for QUEUED jobs, claims them with FOR UPDATE SKIP LOCKED and runs them on its
+ * bounded worker pool under a lease it keeps renewing. Jobs whose lease lapses (node died) are
+ * re-queued; failures are retried with backoff and dead-lettered once attempts run out.
+ */
+@Slf4j
+@Service
+public class AnalysisJobService {
+
+    public static final String TYPE_USER = "USER";
+    public static final String TYPE_REPOSITORY = "REPOSITORY";
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_DEAD = "DEAD";
+
+    private static final List<String> ACTIVE_STATUSES = List.of(STATUS_QUEUED, STATUS_RUNNING);
+
+    // At most one active job per target, enforced by the database so concurrent submits cannot both insert
+    private static final String ACTIVE_TARGET_INDEX = "uq_analysis_jobs_active_target";
+
+    @Autowired
+    private AnalysisJobRepository analysisJobRepository;
+
+    @Autowired
+    private UserAnalyticsService userAnalyticsService;
+
+    @Autowired
+    private RepoAnalyticsService repoAnalyticsService;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("analysisJobExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${analytics.jobs.workers-enabled:true}")
+    private boolean workersEnabled;
+
+    @Value("${analytics.jobs.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${analytics.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${analytics.jobs.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${analytics.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    // Jobs this node is running; progress is buffered here and flushed with the lease heartbeat
+    private final Map<Long, LocalJob> runningHere = new ConcurrentHashMap<>();
+
+    // Submits insert on their own, so losing the race for a target never marks a caller's transaction rollback-only
+    private TransactionTemplate submitTransaction;
+
+    @PostConstruct
+    void init() {
+        submitTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        submitTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Enqueue analysis of a user, or return the job already active for them
+     */
+    public AnalysisJobDto submitUserAnalysis(String username) {
+        return submit(TYPE_USER, username, 0);
+    }
+
+    /**
+     * Enqueue analysis of a repository, or return the job already active for it
+     */
+    public AnalysisJobDto submitRepositoryAnalysis(String owner, String repoName) {
+        return submit(TYPE_REPOSITORY, owner + "/" + repoName, 0);
+    }
+
+    /**
+     * Create the partial unique index behind active job deduplication. Active duplicates left by
+     * earlier versions are settled first, keeping the oldest job for each target.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureActiveTargetIndex() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int superseded = jdbcTemplate.update("UPDATE analysis_jobs SET status = 'FAILED', stage = 'Superseded', "
+                        + "error = 'Duplicate of an older active job for the same target', finished_at = now(), "
+                        + "lease_owner = NULL, lease_expires_at = NULL, updated_at = now() "
+                        + "WHERE status IN ('QUEUED', 'RUNNING') AND id NOT IN ("
+                        + "SELECT min(id) FROM analysis_jobs WHERE status IN ('QUEUED', 'RUNNING') GROUP BY target_key)");
+                if (superseded > 0) {
+                    log.warn("Superseded {} duplicate active analysis jobs", superseded);
+                }
+                jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + ACTIVE_TARGET_INDEX
+                        + " ON analysis_jobs (target_key) WHERE status IN ('QUEUED', 'RUNNING')");
+            });
+        } catch (Exception e) {
+            log.error("Could not create index {}: {}", ACTIVE_TARGET_INDEX, e.getMessage());
+        }
+    }
+
+    /**
+     * Enqueue a job; higher priority jobs are claimed first
+     */
+    public AnalysisJobDto submit(String type, String target, int priority) {
+        String targetKey = type + ":" + target.toLowerCase(Locale.ROOT);
+
+        // A concurrent submit for the same target can win the insert; the loser returns the winner's job.
+        // Another pass covers that job finishing before it could be read.
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return toDto(submitTransaction.execute(status -> findOrCreate(type, target, targetKey, priority)));
+            } catch (DataIntegrityViolationException e) {
+                Optional<AnalysisJob> active = analysisJobRepository.findFirstByTargetKeyAndStatusIn(targetKey, ACTIVE_STATUSES);
+                if (active.isPresent()) {
+                    return toDto(active.get());
+                }
+                if (attempt >= 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private AnalysisJob findOrCreate(String type, String target, String targetKey, int priority) {
+        Optional<AnalysisJob> active = analysisJobRepository.findFirstByTargetKeyAndStatusIn(targetKey, ACTIVE_STATUSES);
+        if (active.isPresent()) {
+            return active.get();
+        }
+
+        AnalysisJob created = new AnalysisJob();
+        created.setJobId(UUID.randomUUID().toString());
+        created.setJobType(type);
+        created.setTarget(target);
+        created.setTargetKey(targetKey);
+        created.setStatus(STATUS_QUEUED);
+        created.setPriority(priority);
+        created.setMaxAttempts(maxAttempts);
+        created.setStage("Queued");
+        created = analysisJobRepository.saveAndFlush(created);
+        log.info("Queued {} analysis job {} for {}", type, created.getJobId(), target);
+        return created;
+    }
+
+    public Optional<AnalysisJobDto> getJob(String jobId) {
+        return analysisJobRepository.findByJobId(jobId).map(this::toDto);
+    }
+
+    /**
+     * Most recently dead-lettered jobs
+     */
+    public List<AnalysisJobDto> getDeadLetters(int limit) {
+        return analysisJobRepository.findByStatusOrderByUpdatedAtDesc(STATUS_DEAD, PageRequest.of(0, limit)).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Put a dead or failed job back on the queue with a fresh set of attempts; if another job is
+     * already active for the same target, that job is returned instead
+     */
+    public Optional<AnalysisJobDto> retry(String jobId) {
+        try {
+            return requeue(jobId);
+        } catch (DataIntegrityViolationException e) {
+            return analysisJobRepository.findByJobId(jobId)
+                    .flatMap(job -> analysisJobRepository.findFirstByTargetKeyAndStatusIn(job.getTargetKey(), ACTIVE_STATUSES))
+                    .map(this::toDto);
+        }
+    }
+
+    private Optional<AnalysisJobDto> requeue(String jobId) {
+        return transactionTemplate.execute(status -> analysisJobRepository.findByJobId(jobId)
+                .filter(job -> STATUS_DEAD.equals(job.getStatus()) || STATUS_FAILED.equals(job.getStatus()))
+                .map(job -> {
+                    job.setStatus(STATUS_QUEUED);
+                    job.setAttempts(0);
+                    job.setPercent(0);
+                    job.setStage("Queued");
+                    job.setError(null);
+                    job.setResult(null);
+                    job.setFinishedAt(null);
+                    job.setAvailableAt(LocalDateTime.now());
+                    log.info("Re-queued analysis job {} for {}", job.getJobId(), job.getTarget());
+                    return toDto(analysisJobRepository.saveAndFlush(job));
+                }));
+    }
+
+    public Map<String, Long> getQueueStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (String status : List.of(STATUS_QUEUED, STATUS_RUNNING, STATUS_SUCCEEDED, STATUS_FAILED, STATUS_DEAD)) {
+            stats.put(status, analysisJobRepository.countByStatus(status));
+        }
+        stats.put("runningOnThisNode", (long) runningHere.size());
+        return stats;
+    }
+
+    /**
+     * Flush progress and renew leases of local jobs; scheduled on its own so a slow claim or another
+     * scheduled task cannot hold back the renewal until the lease expires
+     */
+    @Scheduled(fixedDelayString = "${analytics.jobs.heartbeat-interval-ms:1000}")
+    public void renewLeases() {
+        if (!workersEnabled || runningHere.isEmpty()) {
+            return;
+        }
+
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            log.error("Error renewing analysis job leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim as many queued jobs as this node has free workers
+     */
+    @Scheduled(fixedDelayString = "${analytics.jobs.poll-interval-ms:1000}")
+    public void pollForWork() {
+        if (!workersEnabled) {
+            return;
+        }
+
+        try {
+            int capacity = executor.getMaxPoolSize() - runningHere.size();
+            if (capacity <= 0) {
+                return;
+            }
+
+            for (AnalysisJob job : claim(capacity)) {
+                LocalJob local = new LocalJob(job);
+                runningHere.put(job.getId(), local);
+                try {
+                    executor.execute(() -> run(local));
+                } catch (TaskRejectedException e) {
+                    runningHere.remove(job.getId());
+                    finish(local, STATUS_QUEUED, "Queued", null, null, LocalDateTime.now());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error polling analysis job queue: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-queue (or dead-letter) running jobs whose worker stopped renewing the lease
+     */
+    @Scheduled(fixedDelayString = "${analytics.jobs.lease-check-interval-ms:30000}")
+    public void recoverExpiredLeases() {
+        if (!workersEnabled) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (AnalysisJob job : analysisJobRepository.findExpiredLeases(now)) {
+                    log.warn("Lease expired for analysis job {} held by {}", job.getJobId(), job.getLeaseOwner());
+                    job.setLeaseOwner(null);
+                    job.setLeaseExpiresAt(null);
+                    if (job.getAttempts() >= job.getMaxAttempts()) {
+                        job.setStatus(STATUS_DEAD);
+                        job.setStage("Dead-lettered");
+                        job.setError("Worker lease expired after " + job.getAttempts() + " attempts");
+                        job.setFinishedAt(now);
+                    } else {
+                        job.setStatus(STATUS_QUEUED);
+                        job.setStage("Queued (lease expired)");
+                        job.setAvailableAt(now);
+                    }
+                    analysisJobRepository.save(job);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error recovering expired analysis job leases: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.jobs.purge-interval-ms:3600000}")
+    public void purgeFinishedJobs() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    analysisJobRepository.deleteFinishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+            if (purged != null && purged > 0) {
+                log.info("Purged {} finished analysis jobs", purged);
+            }
+        } catch (Exception e) {
+            log.error("Error purging finished analysis jobs: {}", e.getMessage());
+        }
+    }
+
+    private List<AnalysisJob> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = analysisJobRepository.lockClaimable(limit);
+            if (ids.isEmpty()) {
+                return List.<AnalysisJob>of();
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<AnalysisJob> jobs = analysisJobRepository.findAllById(ids);
+            for (AnalysisJob job : jobs) {
+                job.setStatus(STATUS_RUNNING);
+                job.setLeaseOwner(clusterInvalidationBus.getNodeId());
+                job.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+                job.setAttempts(job.getAttempts() + 1);
+                job.setStage("Starting");
+                if (job.getStartedAt() == null) {
+                    job.setStartedAt(now);
+                }
+            }
+            return analysisJobRepository.saveAll(jobs);
+        });
+    }
+
+    private void run(LocalJob local) {
+        log.info("Running analysis job {} for {} (attempt {})", local.jobId, local.target, local.attempts);
+        try {
+            Object result = TYPE_USER.equals(local.type)
+                    ? userAnalyticsService.analyzeUser(local.target, local::progress).orElse(null)
+                    : analyzeRepository(local);
+
+            if (result != null) {
+                finish(local, STATUS_SUCCEEDED, "Done", null, serialize(local, result), LocalDateTime.now());
+            } else if (isKnownMissing(local)) {
+                finish(local, STATUS_FAILED, "Not found", "Not found on GitHub: " + local.target, null, LocalDateTime.now());
+            } else {
+                retryOrDeadLetter(local, "Analytics could not be generated for " + local.target);
+            }
+        } catch (Exception e) {
+            log.error("Analysis job {} for {} failed: {}", local.jobId, local.target, e.getMessage());
+            retryOrDeadLetter(local, e.getMessage());
+        } finally {
+            runningHere.remove(local.id);
+        }
+    }
+
+    private Object analyzeRepository(LocalJob local) {
+        String[] parts = local.target.split("/", 2);
+        return repoAnalyticsService.analyzeRepository(parts[0], parts[1], local::progress).orElse(null);
+    }
+
+    private boolean isKnownMissing(LocalJob local) {
+        if (TYPE_USER.equals(local.type)) {
+            return negativeLookupCache.wasRecentlyNotFound(NegativeLookupCache.USER, local.target);
+        }
+        String owner = local.target.split("/", 2)[0];
+        return negativeLookupCache.wasRecentlyNotFound(NegativeLookupCache.USER, owner)
+                || negativeLookupCache.wasRecentlyNotFound(NegativeLookupCache.REPOSITORY, local.target);
+    }
+
+    private void retryOrDeadLetter(LocalJob local, String error) {
+        if (local.attempts >= local.maxAttempts) {
+            log.warn("Dead-lettering analysis job {} for {} after {} attempts", local.jobId, local.target, local.attempts);
+            finish(local, STATUS_DEAD, "Dead-lettered", error, null, LocalDateTime.now());
+        } else {
+            // Exponential backoff: base, 2x base, 4x base, ...
+            long delay = retryBackoffSeconds << Math.min(10, local.attempts - 1);
+            finish(local, STATUS_QUEUED, "Retry scheduled", error, null, LocalDateTime.now().plusSeconds(delay));
+        }
+    }
+
+    private void finish(LocalJob local, String status, String stage, String error, String result, LocalDateTime availableAt) {
+        boolean terminal = !STATUS_QUEUED.equals(status);
+        int percent = STATUS_SUCCEEDED.equals(status) ? 100 : STATUS_QUEUED.equals(status) ? 0 : local.percent;
+        try {
+            Integer updated = transactionTemplate.execute(tx -> analysisJobRepository.complete(
+                    local.id, clusterInvalidationBus.getNodeId(), status, percent, stage, error, result,
+                    availableAt, terminal ? LocalDateTime.now() : null));
+            if (updated == null || updated == 0) {
+                log.warn("Analysis job {} lost its lease before finishing; result not recorded", local.jobId);
+            }
+        } catch (Exception e) {
+            log.error("Could not record result of analysis job {}: {}", local.jobId, e.getMessage());
+        }
+    }
+
+    // Kept on the job row, since the analytics cache may never hold the result (partial, disabled) or drop it
+    private String serialize(LocalJob local, Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            log.warn("Could not record result of analysis job {}: {}", local.jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    // Flush buffered progress and extend leases for local jobs
+    private void heartbeat() {
+        LocalDateTime leaseExpiresAt = LocalDateTime.now().plusSeconds(leaseSeconds);
+        long renewAfterNanos = leaseSeconds * 1_000_000_000L / 3;
+        long now = System.nanoTime();
+
+        for (LocalJob local : runningHere.values()) {
+            boolean progressed = local.percent != local.flushedPercent;
+            if (!progressed && now - local.lastHeartbeat < renewAfterNanos) {
+                continue;
+            }
+
+            int percent = local.percent;
+            String stage = local.stage;
+            Integer updated = transactionTemplate.execute(status -> analysisJobRepository.heartbeat(
+                    local.id, clusterInvalidationBus.getNodeId(), percent, stage, leaseExpiresAt));
+            if (updated == null || updated == 0) {
+                log.warn("Analysis job {} is no longer leased to this node", local.jobId);
+            }
+            local.flushedPercent = percent;
+            local.lastHeartbeat = now;
+        }
+    }
+
+    private AnalysisJobDto toDto(AnalysisJob job) {
+        Object result = null;
+        if (STATUS_SUCCEEDED.equals(job.getStatus()) && job.getResult() != null) {
+            try {
+                // Served as the JSON that was recorded, without another round trip through the DTO
+                result = objectMapper.readTree(job.getResult());
+            } catch (Exception e) {
+                log.warn("Could not read result of analysis job {}: {}", job.getJobId(), e.getMessage());
+            }
+        } else if (STATUS_SUCCEEDED.equals(job.getStatus())) {
+            // Jobs finished before results were recorded on the row
+            if (TYPE_USER.equals(job.getJobType())) {
+                result = analyticsCache.getUser(job.getTarget()).orElse(null);
+            } else {
+                String[] parts = job.getTarget().split("/", 2);
+                result = analyticsCache.getRepository(parts[0], parts[1]).orElse(null);
+            }
+        }
+
+        return AnalysisJobDto.builder()
+                .jobId(job.getJobId())
+                .jobType(job.getJobType())
+                .target(job.getTarget())
+                .status(job.getStatus())
+                .percent(job.getPercent())
+                .stage(job.getStage())
+                .error(job.getError())
+                .attempts(job.getAttempts())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .result(result)
+                .build();
+    }
+
+    private static final class LocalJob {
+        private final Long id;
+        private final String jobId;
+        private final String type;
+        private final String target;
+        private final int attempts;
+        private final int maxAttempts;
+        private volatile int percent;
+        private volatile String stage = "Starting";
+        private volatile int flushedPercent = -1;
+        private volatile long lastHeartbeat = System.nanoTime();
+
+        private LocalJob(AnalysisJob job) {
+            this.id = job.getId();
+            this.jobId = job.getJobId();
+            this.type = job.getJobType();
+            this.target = job.getTarget();
+            this.attempts = job.getAttempts();
+            this.maxAttempts = job.getMaxAttempts();
+        }
+
+        private void progress(int newPercent, String newStage) {
+            // Never move backwards, whatever order nested stages report in
+            percent = Math.max(percent, Math.min(99, newPercent));
+            stage = newStage;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gitanalyzer.service;
+
+/**
+ * Callback for reporting how far a long-running analysis has got
+ */
+@FunctionalInterface
+public interface AnalysisProgress {
+
+    AnalysisProgress NONE = (percent, stage) -> { };
+
+    /**
+     * Report progress as a percentage (0-100) and a short description of the current stage
+     */
+    void update(int percent, String stage);
+}
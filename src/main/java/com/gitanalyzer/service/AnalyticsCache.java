@@ -0,0 +1,228 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.RepoAnalyticsDto;
+import com.gitanalyzer.dto.UserAnalyticsDto;
+import com.gitanalyzer.model.AnalyticsSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of computed repository and user analytics, backed by the
+ * analytics_snapshots table so a restarted node serves precomputed results straight away.
+ * Entries are dropped whenever the underlying data is refreshed or new commits are ingested,
+ * on this node and, through the ClusterInvalidationBus, on every other node;
+ * hit/miss statistics are published as the cache.* meters under the names below.
+ */
+@Slf4j
+@Service
+public class AnalyticsCache {
+
+    public static final String REPOSITORY_CACHE = "analytics.repository";
+    public static final String USER_CACHE = "analytics.user";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AnalyticsSnapshotStore analyticsSnapshotStore;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Value("${analytics.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.cache.max-entries:1000}")
+    private long maxEntries;
+
+    // Budget per cache in list and map elements across all entries, which is what an entry's heap use scales with
+    @Value("${analytics.cache.max-weight:2000000}")
+    private long maxWeight;
+
+    private Cache<String, RepoAnalyticsDto> repositories;
+    private Cache<String, UserAnalyticsDto> users;
+
+    @PostConstruct
+    void init() {
+        // Caffeine takes one bound per cache: the weight bound is the real one, and the entry count is
+        // enforced separately by trimming the coldest entries (see trim)
+        repositories = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .<String, RepoAnalyticsDto>weigher((key, dto) -> (int) Math.min(Integer.MAX_VALUE, weigh(dto)))
+                .recordStats()
+                .build();
+        users = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .<String, UserAnalyticsDto>weigher((key, dto) -> (int) Math.min(Integer.MAX_VALUE, weigh(dto)))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, repositories, REPOSITORY_CACHE);
+        CaffeineCacheMetrics.monitor(meterRegistry, users, USER_CACHE);
+
+        // Other nodes announce new or dropped entries; drop the local copy and reload from the snapshot on next use
+        clusterInvalidationBus.subscribe(invalidation -> {
+            switch (invalidation.type()) {
+                case ClusterInvalidationBus.Invalidation.REPOSITORY -> repositories.invalidate(invalidation.key());
+                case ClusterInvalidationBus.Invalidation.USER -> users.invalidate(invalidation.key());
+                case ClusterInvalidationBus.Invalidation.ALL -> evictAll();
+                default -> { }
+            }
+        });
+    }
+
+    /**
+     * Get cached repository analytics, falling back to the stored snapshot on a local miss
+     */
+    public Optional<RepoAnalyticsDto> getRepository(String owner, String repoName) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = repositoryKey(owner, repoName);
+        RepoAnalyticsDto analytics = repositories.get(key, k ->
+                analyticsSnapshotStore.load(AnalyticsSnapshot.TYPE_REPOSITORY, k, RepoAnalyticsDto.class).orElse(null));
+        trim(repositories);
+        return Optional.ofNullable(analytics);
+    }
+
+    public void putRepository(String owner, String repoName, RepoAnalyticsDto analytics) {
+        if (enabled) {
+            String key = repositoryKey(owner, repoName);
+            repositories.put(key, analytics);
+            trim(repositories);
+            analyticsSnapshotStore.save(AnalyticsSnapshot.TYPE_REPOSITORY, key, analytics, analytics.getAnalyzedAt());
+            clusterInvalidationBus.publish(ClusterInvalidationBus.Invalidation.REPOSITORY, key);
+        }
+    }
+
+    public void evictRepository(String owner, String repoName) {
+        evictRepositoryKey(repositoryKey(owner, repoName));
+    }
+
+    /**
+     * Evict a repository by its "owner/repo" full name
+     */
+    public void evictRepository(String fullName) {
+        if (fullName != null) {
+            evictRepositoryKey(fullName.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private void evictRepositoryKey(String key) {
+        repositories.invalidate(key);
+        analyticsSnapshotStore.delete(AnalyticsSnapshot.TYPE_REPOSITORY, key);
+        clusterInvalidationBus.publish(ClusterInvalidationBus.Invalidation.REPOSITORY, key);
+    }
+
+    /**
+     * Get cached user analytics, falling back to the stored snapshot on a local miss
+     */
+    public Optional<UserAnalyticsDto> getUser(String username) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        UserAnalyticsDto analytics = users.get(userKey(username), k ->
+                analyticsSnapshotStore.load(AnalyticsSnapshot.TYPE_USER, k, UserAnalyticsDto.class).orElse(null));
+        trim(users);
+        return Optional.ofNullable(analytics);
+    }
+
+    public void putUser(String username, UserAnalyticsDto analytics) {
+        if (enabled) {
+            String key = userKey(username);
+            users.put(key, analytics);
+            trim(users);
+            analyticsSnapshotStore.save(AnalyticsSnapshot.TYPE_USER, key, analytics, analytics.getUpdatedAt());
+            clusterInvalidationBus.publish(ClusterInvalidationBus.Invalidation.USER, key);
+        }
+    }
+
+    public void evictUser(String username) {
+        String key = userKey(username);
+        users.invalidate(key);
+        analyticsSnapshotStore.delete(AnalyticsSnapshot.TYPE_USER, key);
+        clusterInvalidationBus.publish(ClusterInvalidationBus.Invalidation.USER, key);
+    }
+
+    /**
+     * Clear the in-process tier only; snapshots stay for the next miss
+     */
+    public void evictAll() {
+        repositories.invalidateAll();
+        users.invalidateAll();
+        log.info("Cleared analytics cache");
+    }
+
+    // GitHub logins and repository names are case-insensitive
+    private static String repositoryKey(String owner, String repoName) {
+        return (owner + "/" + repoName).toLowerCase(Locale.ROOT);
+    }
+
+    private static String userKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    // Weight is roughly the number of nested elements, which tracks the serialized size
+    private static long weigh(RepoAnalyticsDto dto) {
+        long weight = 16;
+        if (dto.getCommitAnalytics() != null) {
+            weight += size(dto.getCommitAnalytics().getCommitTimeline())
+                    + size(dto.getCommitAnalytics().getTopCommits())
+                    + size(dto.getCommitAnalytics().getCommitsByHour());
+        }
+        if (dto.getContributorAnalytics() != null) {
+            weight += size(dto.getContributorAnalytics().getTopContributors())
+                    + size(dto.getContributorAnalytics().getContributorTimeline())
+                    + size(dto.getContributorAnalytics().getContributionDistribution());
+        }
+        if (dto.getCodeAnalytics() != null) {
+            weight += size(dto.getCodeAnalytics().getMainFileTypes())
+                    + size(dto.getCodeAnalytics().getFileTypeDistribution());
+        }
+        if (dto.getActivityAnalytics() != null) {
+            weight += size(dto.getActivityAnalytics().getBusiestDays())
+                    + size(dto.getActivityAnalytics().getBusiestHours());
+        }
+        return weight;
+    }
+
+    private static long weigh(UserAnalyticsDto dto) {
+        long weight = 16 + size(dto.getTopRepositories()) + size(dto.getLanguageBreakdown());
+        if (dto.getActivityStats() != null) {
+            weight += size(dto.getActivityStats().getDailyActivity())
+                    + size(dto.getActivityStats().getHourlyActivity());
+        }
+        return weight;
+    }
+
+    /**
+     * Drop the coldest local entries beyond max-entries; their snapshots stay for the next miss
+     */
+    private <V> void trim(Cache<String, V> cache) {
+        long excess = cache.estimatedSize() - maxEntries;
+        if (excess > 0) {
+            cache.policy().eviction().ifPresent(eviction ->
+                    cache.invalidateAll(eviction.coldest((int) Math.min(Integer.MAX_VALUE, excess)).keySet()));
+        }
+    }
+
+    private static int size(Collection<?> values) {
+        return values != null ? values.size() : 0;
+    }
+
+    private static int size(Map<?, ?> values) {
+        return values != null ? values.size() : 0;
+    }
+}
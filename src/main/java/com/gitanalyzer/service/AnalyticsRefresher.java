@@ -0,0 +1,64 @@
+package com.gitanalyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs background analytics refreshes, at most one in flight per key
+ */
+@Slf4j
+@Service
+public class AnalyticsRefresher {
+
+    @Autowired
+    @Qualifier("analyticsRefreshExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Submit a refresh unless one for the same key is already queued or running.
+     * Returns true if this call scheduled it.
+     */
+    public boolean refreshOnce(String key, Runnable refresh) {
+        String normalized = key.toLowerCase(Locale.ROOT);
+        if (!inFlight.add(normalized)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                long start = System.currentTimeMillis();
+                try {
+                    refresh.run();
+                    log.info("Background refresh of {} finished in {}ms", key, System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    log.error("Background refresh of {} failed: {}", key, e.getMessage());
+                } finally {
+                    inFlight.remove(normalized);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            inFlight.remove(normalized);
+            log.warn("Background refresh queue full, skipping {}", key);
+            return false;
+        }
+    }
+
+    public boolean isRefreshing(String key) {
+        return inFlight.contains(key.toLowerCase(Locale.ROOT));
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,120 @@
+package com.gitanalyzer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded analytics response bodies keyed by entity tag, so repeat views of an unchanged
+ * analysis are written out as raw bytes without going through Jackson again.
+ * A tag identifies one analysis version, so entries never need invalidating; they just age out.
+ */
+@Slf4j
+@Service
+public class AnalyticsResponseCache {
+
+    public static final String RESPONSE_CACHE = "analytics.response";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${analytics.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private Cache<String, EncodedResponse> responses;
+
+    @PostConstruct
+    void init() {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, EncodedResponse>weigher((key, response) -> response.weight())
+                .expireAfterAccess(Duration.ofHours(1))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, RESPONSE_CACHE);
+    }
+
+    /**
+     * Get the encoded body for a key, serializing it with the given encoder on a miss
+     */
+    public EncodedResponse get(String key, Callable<byte[]> encoder) {
+        if (!enabled) {
+            return new EncodedResponse(call(encoder));
+        }
+        return responses.get(key, k -> new EncodedResponse(call(encoder)));
+    }
+
+    public long getCachedBytes() {
+        return responses.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private static byte[] call(Callable<byte[]> encoder) {
+        try {
+            return encoder.call();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode analytics response", e);
+        }
+    }
+
+    /**
+     * A serialized body plus its gzip encoding, compressed on first use
+     */
+    public static final class EncodedResponse {
+        private final byte[] json;
+        private volatile byte[] gzip;
+
+        private EncodedResponse(byte[] json) {
+            this.json = json;
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        public byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                // Benign race: concurrent first callers may each compress once
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        // Raw size counts twice to leave room for the compressed copy
+        private int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, 64L + 2L * json.length);
+        }
+
+        private static byte[] compress(byte[] data) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                out.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
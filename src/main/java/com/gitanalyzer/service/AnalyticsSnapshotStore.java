@@ -0,0 +1,113 @@
+package com.gitanalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gitanalyzer.model.AnalyticsSnapshot;
+import com.gitanalyzer.repository.AnalyticsSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Database tier behind AnalyticsCache: analytics DTOs stored as gzip-compressed JSON.
+ * Failures are logged and treated as misses so the snapshot tier can never break a request.
+ * Writes run in their own transaction: they are issued from after-commit hooks, where the caller's
+ * transaction is still bound but already committed and cannot take further updates.
+ */
+@Slf4j
+@Service
+public class AnalyticsSnapshotStore {
+
+    @Autowired
+    private AnalyticsSnapshotRepository analyticsSnapshotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.snapshots.enabled:true}")
+    private boolean enabled;
+
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Load and decode the snapshot for a key
+     */
+    public <T> Optional<T> load(String type, String key, Class<T> dtoType) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            Optional<AnalyticsSnapshot> snapshot = analyticsSnapshotRepository.findBySnapshotTypeAndSnapshotKey(type, key);
+            if (snapshot.isEmpty()) {
+                return Optional.empty();
+            }
+
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.get().getPayload()))) {
+                return Optional.of(objectMapper.readValue(in, dtoType));
+            }
+        } catch (Exception e) {
+            log.warn("Could not load {} snapshot {}: {}", type, key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Encode and store the snapshot for a key, replacing any previous one
+     */
+    public void save(String type, String key, Object dto, LocalDateTime analyzedAt) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            byte[] payload = encode(dto);
+            writeTransaction.executeWithoutResult(status -> analyticsSnapshotRepository.upsert(type, key, payload, analyzedAt));
+        } catch (Exception e) {
+            log.warn("Could not save {} snapshot {}: {}", type, key, e.getMessage());
+        }
+    }
+
+    public void delete(String type, String key) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            writeTransaction.executeWithoutResult(status -> analyticsSnapshotRepository.deleteByTypeAndKey(type, key));
+        } catch (Exception e) {
+            log.warn("Could not delete {} snapshot {}: {}", type, key, e.getMessage());
+        }
+    }
+
+    private byte[] encode(Object dto) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, dto);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,207 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.config.GitHubRateLimitInterceptor;
+import com.gitanalyzer.model.User;
+import com.gitanalyzer.repository.RepositoryRepository;
+import com.gitanalyzer.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputes analytics for the most searched users and repositories at startup.
+ * Application runners complete before the readiness state switches to ACCEPTING_TRAFFIC,
+ * so the node only reports ready once warm-up has finished or used up its budget.
+ */
+@Slf4j
+@Component
+public class AnalyticsWarmupRunner implements ApplicationRunner {
+
+    @Autowired
+    private SearchHeavyHitters searchHeavyHitters;
+
+    @Autowired
+    private UserAnalyticsService userAnalyticsService;
+
+    @Autowired
+    private RepoAnalyticsService repoAnalyticsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RepositoryRepository repositoryRepository;
+
+    @Autowired
+    private GitHubRateLimitInterceptor gitHubRateLimitInterceptor;
+
+    @Value("${analytics.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.warmup.top-users:20}")
+    private int topUsers;
+
+    @Value("${analytics.warmup.top-repositories:20}")
+    private int topRepositories;
+
+    // How far back search popularity is counted
+    @Value("${analytics.warmup.popularity-days:30}")
+    private int popularityDays;
+
+    @Value("${analytics.warmup.threads:4}")
+    private int threads;
+
+    @Value("${analytics.warmup.time-budget-seconds:60}")
+    private long timeBudgetSeconds;
+
+    // Maximum GitHub requests warm-up may spend
+    @Value("${analytics.warmup.api-budget:300}")
+    private long apiBudget;
+
+    // Stop early when GitHub reports fewer requests than this left in the window
+    @Value("${analytics.warmup.min-remaining:500}")
+    private long minRemaining;
+
+    // Estimated GitHub requests for analyzing one repository (profile, repository, commit pages, contributors)
+    @Value("${analytics.warmup.repository-cost:7}")
+    private long repositoryCost;
+
+    // Estimated GitHub requests for analyzing one user (profile, repository list, recent commits per repository)
+    @Value("${analytics.warmup.user-cost:20}")
+    private long userCost;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.SECONDS.toMillis(timeBudgetSeconds);
+        long requestsAtStart = gitHubRateLimitInterceptor.getRequestCount();
+
+        List<WarmupTask> tasks = new ArrayList<>();
+        try {
+            for (SpaceSavingSketch.Entry entry : searchHeavyHitters.topUsers(popularityDays, Math.max(1, topUsers))) {
+                String username = entry.key();
+                tasks.add(new WarmupTask(() -> userAnalyticsService.getUserAnalytics(storedUsername(username)), userCost));
+            }
+            for (SpaceSavingSketch.Entry entry : searchHeavyHitters.topRepositories(popularityDays, Math.max(1, topRepositories))) {
+                String[] parts = entry.key().split("/", 2);
+                if (parts.length == 2) {
+                    tasks.add(new WarmupTask(() -> {
+                        String[] stored = storedRepositoryName(parts[0], parts[1]);
+                        repoAnalyticsService.getRepositoryAnalytics(stored[0], stored[1]);
+                    }, repositoryCost));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not load warm-up candidates: {}", e.getMessage());
+            return;
+        }
+
+        if (tasks.isEmpty()) {
+            log.info("No search history, skipping analytics warm-up");
+            return;
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        // Requests reserved by tasks still running; counted against the budget until they finish
+        AtomicLong reserved = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), namedThreads());
+        try {
+            List<CompletableFuture<Void>> futures = tasks.stream()
+                    .map(task -> CompletableFuture.runAsync(() -> {
+                        if (!reserve(task.cost(), reserved, deadline, requestsAtStart)) {
+                            skipped.incrementAndGet();
+                            return;
+                        }
+                        try {
+                            task.action().run();
+                            completed.incrementAndGet();
+                        } catch (Exception e) {
+                            log.warn("Warm-up task failed: {}", e.getMessage());
+                        } finally {
+                            reserved.addAndGet(-task.cost());
+                        }
+                    }, executor))
+                    .toList();
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Analytics warm-up hit its {}s time budget", timeBudgetSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Analytics warm-up failed: {}", e.getMessage());
+        } finally {
+            // Anything still running finishes in the background; it only fills caches
+            executor.shutdown();
+        }
+
+        log.info("Analytics warm-up finished in {}ms: {} of {} warmed, {} skipped for budget, {} GitHub requests used",
+                System.currentTimeMillis() - start, completed.get(), tasks.size(), skipped.get(),
+                gitHubRateLimitInterceptor.getRequestCount() - requestsAtStart);
+    }
+
+    /**
+     * Reserve a task's estimated cost if it fits the budget alongside the requests already made and those
+     * reserved by running tasks, so concurrent tasks cannot all start on the same last bit of budget.
+     * Requests a running task has already made are counted twice until it finishes, which errs towards stopping.
+     */
+    private synchronized boolean reserve(long cost, AtomicLong reserved, long deadline, long requestsAtStart) {
+        if (System.currentTimeMillis() >= deadline) {
+            return false;
+        }
+        long committed = gitHubRateLimitInterceptor.getRequestCount() - requestsAtStart + reserved.get();
+        if (committed + cost > apiBudget) {
+            return false;
+        }
+        long remaining = gitHubRateLimitInterceptor.getRemaining();
+        if (remaining >= 0 && remaining - reserved.get() - cost < minRemaining) {
+            return false;
+        }
+        reserved.addAndGet(cost);
+        return true;
+    }
+
+    /**
+     * Sketch keys are lowercased, while stored logins keep GitHub's case and are looked up exactly;
+     * use the stored spelling so warm-up reads the existing row instead of fetching a duplicate
+     */
+    private String storedUsername(String username) {
+        return userRepository.findFirstByGithubUsernameIgnoreCase(username)
+                .map(User::getGithubUsername)
+                .orElse(username);
+    }
+
+    private String[] storedRepositoryName(String owner, String repoName) {
+        return repositoryRepository.findByOwnerAndNameIgnoreCase(owner, repoName).stream()
+                .findFirst()
+                .map(repository -> new String[]{repository.getUser().getGithubUsername(), repository.getRepoName()})
+                .orElse(new String[]{owner, repoName});
+    }
+
+    private record WarmupTask(Runnable action, long cost) {
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "analytics-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.config.GitHubRateLimitInterceptor;
+import com.gitanalyzer.model.Repository;
+import com.gitanalyzer.model.User;
+import com.gitanalyzer.repository.AnalysisJobRepository;
+import com.gitanalyzer.repository.RepositoryRepository;
+import com.gitanalyzer.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Re-analyzes stale users and repositories in the background so interactive requests find fresh data.
+ * Candidates are ranked by search popularity and staleness, and each run only enqueues as much work
+ * as the remaining GitHub rate limit can pay for, spread evenly across the rest of the window.
+ */
+@Slf4j
+@Service
+public class BackgroundRefreshScheduler {
+
+    // Background jobs are claimed after anything a user submitted
+    static final int BACKGROUND_PRIORITY = -1;
+
+    // Advisory lock key so only one node plans a refresh round at a time
+    private static final long REFRESH_LOCK_KEY = 0x6761726566726573L;
+
+    @Autowired
+    private RepositoryRepository repositoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SearchHeavyHitters searchHeavyHitters;
+
+    @Autowired
+    private AnalysisJobRepository analysisJobRepository;
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private GitHubRateLimitInterceptor gitHubRateLimitInterceptor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.background-refresh.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.background-refresh.interval-ms:300000}")
+    private long intervalMs;
+
+    // Requests left untouched in every window for interactive traffic
+    @Value("${analytics.background-refresh.reserve:1000}")
+    private long reserve;
+
+    // Budget assumed per run before GitHub has reported a rate limit
+    @Value("${analytics.background-refresh.default-budget:50}")
+    private long defaultBudget;
+
+    // Rough GitHub requests spent by one refresh of each kind
+    @Value("${analytics.background-refresh.repository-cost:7}")
+    private long repositoryCost;
+
+    @Value("${analytics.background-refresh.user-cost:20}")
+    private long userCost;
+
+    // Leave the queue alone while it still holds this many jobs
+    @Value("${analytics.background-refresh.max-queued:50}")
+    private long maxQueued;
+
+    // How many of the most searched names feed the popularity ranking
+    @Value("${analytics.background-refresh.popularity-window:1000}")
+    private int popularityWindow;
+
+    @Value("${analytics.background-refresh.popularity-days:30}")
+    private int popularityDays;
+
+    // Refresh stale entries nobody has searched for as well
+    @Value("${analytics.background-refresh.include-unsearched:false}")
+    private boolean includeUnsearched;
+
+    @Scheduled(fixedDelayString = "${analytics.background-refresh.interval-ms:300000}",
+            initialDelayString = "${analytics.background-refresh.initial-delay-ms:120000}")
+    public void refreshStaleAnalytics() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Integer queued = transactionTemplate.execute(status ->
+                    analysisJobRepository.tryAdvisoryXactLock(REFRESH_LOCK_KEY) ? planRound() : null);
+            if (queued != null && queued > 0) {
+                log.info("Queued {} background analytics refreshes", queued);
+            }
+        } catch (Exception e) {
+            log.error("Background analytics refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private int planRound() {
+        long backlog = analysisJobRepository.countByStatus(AnalysisJobService.STATUS_QUEUED);
+        if (backlog >= maxQueued) {
+            log.debug("Skipping background refresh, {} jobs already queued", backlog);
+            return 0;
+        }
+
+        long budget = budgetForThisRun();
+        if (budget <= 0) {
+            log.debug("Skipping background refresh, no spare GitHub budget");
+            return 0;
+        }
+
+        List<Candidate> candidates = rankCandidates();
+        int queued = 0;
+        for (Candidate candidate : candidates) {
+            if (queued >= maxQueued - backlog) {
+                break;
+            }
+            if (candidate.cost > budget) {
+                continue;
+            }
+            analysisJobService.submit(candidate.type, candidate.target, BACKGROUND_PRIORITY);
+            budget -= candidate.cost;
+            queued++;
+        }
+        return queued;
+    }
+
+    /**
+     * Spendable requests above the reserve, split over the runs left before the window resets
+     */
+    private long budgetForThisRun() {
+        long remaining = gitHubRateLimitInterceptor.getRemaining();
+        if (remaining < 0) {
+            return defaultBudget;
+        }
+
+        long spendable = remaining - reserve;
+        if (spendable <= 0) {
+            return 0;
+        }
+
+        Instant resetAt = gitHubRateLimitInterceptor.getResetAt();
+        long millisToReset = resetAt != null ? Duration.between(Instant.now(), resetAt).toMillis() : 0;
+        long runsLeft = Math.max(1, millisToReset / Math.max(1, intervalMs));
+        return spendable / runsLeft;
+    }
+
+    private List<Candidate> rankCandidates() {
+        LocalDateTime now = LocalDateTime.now();
+        int limit = Math.max(1, popularityWindow);
+
+        Map<String, Long> userSearches = new HashMap<>();
+        for (SpaceSavingSketch.Entry entry : searchHeavyHitters.topUsers(popularityDays, limit)) {
+            userSearches.merge(key(entry.key()), entry.count(), Long::sum);
+        }
+        Map<String, Long> repositorySearches = new HashMap<>();
+        for (SpaceSavingSketch.Entry entry : searchHeavyHitters.topRepositories(popularityDays, limit)) {
+            repositorySearches.merge(key(entry.key()), entry.count(), Long::sum);
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Repository repository : repositoryRepository.findRepositoriesNeedingAnalysis(now.minus(RepoAnalyticsService.STALE_AFTER))) {
+            long searches = repositorySearches.getOrDefault(key(repository.getFullName()), 0L);
+            if (searches > 0 || includeUnsearched) {
+                candidates.add(new Candidate(AnalysisJobService.TYPE_REPOSITORY, repository.getFullName(), repositoryCost,
+                        score(searches, repository.getAnalyzedAt(), RepoAnalyticsService.STALE_AFTER, now)));
+            }
+        }
+        for (User user : userRepository.findUsersNeedingRefresh(now.minus(UserAnalyticsService.STALE_AFTER))) {
+            long searches = userSearches.getOrDefault(key(user.getGithubUsername()), 0L);
+            if (searches > 0 || includeUnsearched) {
+                candidates.add(new Candidate(AnalysisJobService.TYPE_USER, user.getGithubUsername(), userCost,
+                        score(searches, user.getUpdatedAt(), UserAnalyticsService.STALE_AFTER, now)));
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        return candidates;
+    }
+
+    /**
+     * Popularity dominates on a log scale; staleness, in multiples of the freshness window, breaks ties
+     * and lets long-neglected entries climb
+     */
+    private static double score(long searches, LocalDateTime lastRefreshed, Duration staleAfter, LocalDateTime now) {
+        double staleness = lastRefreshed == null
+                ? 10.0
+                : Math.min(10.0, (double) Duration.between(lastRefreshed, now).toMinutes() / staleAfter.toMinutes());
+        return Math.log1p(searches) * 2.0 + staleness;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Candidate(String type, String target, long cost, double score) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.gitanalyzer.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cache invalidation across app nodes over PostgreSQL LISTEN/NOTIFY.
+ * Messages are sent once the caller's transaction commits, so other nodes never reload data that is not visible yet
+ * and a rolled-back change invalidates nothing. Each goes out in its own short transaction, because in after-commit
+ * hooks the caller's committed transaction is still bound; every node listens on a dedicated connection and hands
+ * messages from other nodes to its subscribers.
+ */
+@Slf4j
+@Service
+public class ClusterInvalidationBus {
+
+    public static final String CHANNEL = "analytics_invalidation";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.cluster-invalidation.enabled:true}")
+    private boolean enabled;
+
+    private TransactionTemplate publishTransaction;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listener;
+
+    @PostConstruct
+    void start() {
+        publishTransaction = new TransactionTemplate(transactionManager);
+        publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "analytics-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Register a handler for invalidations published by other nodes
+     */
+    public void subscribe(Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Tell the other nodes to drop their local copy of something, once the current transaction (if any) commits
+     */
+    public void publish(String type, String key) {
+        if (!enabled) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> send(type, key));
+    }
+
+    private void send(String type, String key) {
+        try {
+            publishTransaction.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+                    CHANNEL, nodeId + "|" + type + "|" + key));
+        } catch (Exception e) {
+            log.warn("Could not publish {} invalidation for {}: {}", type, key, e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        boolean connectedBefore = false;
+
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cache invalidations on {} as node {}", CHANNEL, nodeId);
+
+                // Messages sent while we were disconnected are lost, so start from a clean slate
+                if (connectedBefore) {
+                    dispatch(new Invalidation(Invalidation.ALL, ""));
+                }
+                connectedBefore = true;
+                backoffMs = 1000;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) continue;
+
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) break;
+                log.warn("Invalidation listener disconnected: {}; retrying in {}ms", e.getMessage(), backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30000);
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            log.debug("Ignoring malformed invalidation: {}", payload);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        dispatch(new Invalidation(parts[1], parts[2]));
+    }
+
+    private void dispatch(Invalidation invalidation) {
+        for (Consumer<Invalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (Exception e) {
+                log.error("Invalidation handler failed for {}: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A single invalidation: the kind of entry and its key (ALL clears everything)
+     */
+    public record Invalidation(String type, String key) {
+        public static final String ALL = "ALL";
+        public static final String REPOSITORY = "REPOSITORY";
+        public static final String USER = "USER";
+        public static final String COMMITS = "COMMITS";
+    }
+}
@@ -0,0 +1,204 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.RepoAnalyticsDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Commit activity over fixed-width commit rows sorted by author time (epoch seconds, UTC).
+ * Time windows are binary searches and histograms are plain index loops, so subclasses only
+ * have to expose the columns: heap arrays ({@link CommitColumns}) or a mapped file ({@link MappedCommitSegment}).
+ */
+public abstract class ColumnarCommitActivity implements CommitActivity {
+
+    /** Epoch value used for commits without an author date; sorts before every real date */
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    // Lazily computed; the columns never change once built
+    private volatile Totals totals;
+    private int firstDatedIndex = -1;
+
+    public abstract int size();
+
+    /**
+     * Database id of the commit at a row (0 if unknown)
+     */
+    public abstract long commitIdAt(int index);
+
+    public abstract long epochSecondAt(int index);
+
+    public abstract int additionsAt(int index);
+
+    public abstract int deletionsAt(int index);
+
+    public abstract int changedFilesAt(int index);
+
+    public abstract int authorIdAt(int index);
+
+    public abstract int authorCount();
+
+    public abstract String authorName(int authorId);
+
+    /**
+     * Highest commit id included in the columns (0 if unknown)
+     */
+    public abstract long maxCommitId();
+
+    /**
+     * Approximate heap footprint, used to bound the column store
+     */
+    public abstract long estimatedHeapBytes();
+
+    /**
+     * The rows whose commits are not in the columns yet. Ids from concurrent ingests commit out of order,
+     * so every id is checked rather than comparing against the highest one.
+     */
+    public List<CommitColumns.Row> unseen(List<CommitColumns.Row> rows) {
+        Set<Long> incoming = new HashSet<>();
+        for (CommitColumns.Row row : rows) {
+            if (row.commitId() != null) {
+                incoming.add(row.commitId());
+            }
+        }
+
+        Set<Long> known = new HashSet<>();
+        for (int i = 0; i < size() && known.size() < incoming.size(); i++) {
+            long commitId = commitIdAt(i);
+            if (incoming.contains(commitId)) {
+                known.add(commitId);
+            }
+        }
+
+        return known.isEmpty() ? rows : rows.stream()
+                .filter(row -> row.commitId() == null || !known.contains(row.commitId()))
+                .toList();
+    }
+
+    @Override
+    public Totals totals() {
+        Totals result = totals;
+        if (result == null) {
+            result = computeTotals();
+            totals = result;
+        }
+        return result;
+    }
+
+    @Override
+    public List<RepoAnalyticsDto.CommitTimelineDto> timeline(int days) {
+        List<RepoAnalyticsDto.CommitTimelineDto> timeline = new ArrayList<>();
+        BitSet dayAuthors = new BitSet(authorCount());
+        int firstDated = firstDatedIndex();
+
+        int i = size() - 1;
+        while (i >= firstDated && timeline.size() < days) {
+            long day = Math.floorDiv(epochSecondAt(i), SECONDS_PER_DAY);
+            int commits = 0, dayAdditions = 0, dayDeletions = 0;
+            dayAuthors.clear();
+
+            while (i >= firstDated && Math.floorDiv(epochSecondAt(i), SECONDS_PER_DAY) == day) {
+                commits++;
+                dayAdditions += additionsAt(i);
+                dayDeletions += deletionsAt(i);
+                int authorId = authorIdAt(i);
+                if (!authorName(authorId).isEmpty()) {
+                    dayAuthors.set(authorId);
+                }
+                i--;
+            }
+
+            timeline.add(RepoAnalyticsDto.CommitTimelineDto.builder()
+                    .date(LocalDate.ofEpochDay(day).toString())
+                    .commits(commits)
+                    .additions(dayAdditions)
+                    .deletions(dayDeletions)
+                    .uniqueContributors(dayAuthors.cardinality())
+                    .build());
+        }
+
+        return timeline;
+    }
+
+    @Override
+    public Map<Integer, Integer> commitsByHour() {
+        int[] hours = new int[24];
+        for (int i = firstDatedIndex(); i < size(); i++) {
+            hours[(int) (Math.floorMod(epochSecondAt(i), SECONDS_PER_DAY) / 3600)]++;
+        }
+        return toMap(hours, 0);
+    }
+
+    @Override
+    public Map<Integer, Integer> commitsByDayOfWeek() {
+        int[] weekdays = new int[7];
+        for (int i = firstDatedIndex(); i < size(); i++) {
+            // Epoch day 0 (1970-01-01) was a Thursday
+            weekdays[(int) Math.floorMod(Math.floorDiv(epochSecondAt(i), SECONDS_PER_DAY) + 3, 7)]++;
+        }
+        return toMap(weekdays, 1);
+    }
+
+    @Override
+    public int countSince(LocalDateTime since) {
+        return size() - lowerBound(since.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : NO_DATE;
+    }
+
+    private int firstDatedIndex() {
+        if (firstDatedIndex < 0) {
+            firstDatedIndex = lowerBound(NO_DATE + 1);
+        }
+        return firstDatedIndex;
+    }
+
+    // First index whose epoch is >= the given value
+    private int lowerBound(long epoch) {
+        int low = 0, high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochSecondAt(mid) < epoch) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Totals computeTotals() {
+        if (size() == 0) {
+            return Totals.EMPTY;
+        }
+
+        long totalAdditions = 0, totalDeletions = 0, totalChangedFiles = 0;
+        for (int i = 0; i < size(); i++) {
+            totalAdditions += additionsAt(i);
+            totalDeletions += deletionsAt(i);
+            totalChangedFiles += changedFilesAt(i);
+        }
+
+        int firstDated = firstDatedIndex();
+        boolean hasDates = firstDated < size();
+        return new Totals(size(), (int) totalAdditions, (int) totalDeletions, (int) totalChangedFiles,
+                hasDates ? LocalDateTime.ofEpochSecond(epochSecondAt(firstDated), 0, ZoneOffset.UTC) : null,
+                hasDates ? LocalDateTime.ofEpochSecond(epochSecondAt(size() - 1), 0, ZoneOffset.UTC) : null);
+    }
+
+    private static Map<Integer, Integer> toMap(int[] counts, int keyOffset) {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                map.put(i + keyOffset, counts[i]);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.RepoAnalyticsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model behind the commit and activity sections of repository analytics.
+ * Backed either by the commit_daily_stats rollup or by resident commit columns.
+ */
+public interface CommitActivity {
+
+    /**
+     * Totals over every commit of the repository
+     */
+    Totals totals();
+
+    /**
+     * Per-day timeline for the most recent days with commits, newest first
+     */
+    List<RepoAnalyticsDto.CommitTimelineDto> timeline(int days);
+
+    /**
+     * Commit count per hour of day (0-23)
+     */
+    Map<Integer, Integer> commitsByHour();
+
+    /**
+     * Commit count per day of week (1 = Monday ... 7 = Sunday)
+     */
+    Map<Integer, Integer> commitsByDayOfWeek();
+
+    /**
+     * Number of commits authored at or after the given time
+     */
+    int countSince(LocalDateTime since);
+
+    record Totals(int commits, int additions, int deletions, int changedFiles,
+                  LocalDateTime firstCommit, LocalDateTime lastCommit) {
+
+        public static final Totals EMPTY = new Totals(0, 0, 0, 0, null, null);
+    }
+}
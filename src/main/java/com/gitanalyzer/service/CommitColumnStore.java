@@ -0,0 +1,336 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.model.Commit;
+import com.gitanalyzer.repository.CommitRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-process columnar cache of commit metrics for hot repositories.
+ * A repository is loaded once on first analytics access, kept current by ingest appends,
+ * and the least recently used repositories are evicted when the memory budget is exceeded.
+ * When the segment tier is enabled, columns are served from memory-mapped files instead of the heap.
+ * A transaction that ingested commits for a repository does not see its columns until it commits
+ * (callers fall back to the rollup, which that transaction keeps current).
+ */
+@Slf4j
+@Service
+public class CommitColumnStore {
+
+    @Autowired
+    private CommitRepository commitRepository;
+
+    @Autowired
+    private CommitSegmentStore commitSegmentStore;
+
+    @Value("${analytics.column-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.column-store.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    // Transaction resource holding the repositories the current transaction ingested commits for
+    private static final Object INGESTED_KEY = new Object();
+
+    private static final int APPEND_LOCK_STRIPES = 64;
+
+    private final Map<Long, Resident> resident = new ConcurrentHashMap<>();
+    private final AtomicLong residentBytes = new AtomicLong();
+
+    // Loads in progress, queried and read outside the resident map; appends and evictions arriving meanwhile mark them stale
+    private final Map<Long, Loading> loading = new ConcurrentHashMap<>();
+
+    // Appends to one repository's columns are applied one at a time
+    private final Object[] appendLocks = IntStream.range(0, APPEND_LOCK_STRIPES).mapToObj(i -> new Object()).toArray();
+
+    @PostConstruct
+    void subscribe() {
+        // Commits ingested on another node: our columns (and segment) are missing them
+        clusterInvalidationBus.subscribe(invalidation -> {
+            if (ClusterInvalidationBus.Invalidation.COMMITS.equals(invalidation.type())) {
+                evict(Long.valueOf(invalidation.key()));
+            } else if (ClusterInvalidationBus.Invalidation.ALL.equals(invalidation.type())) {
+                // Missed messages: drop what is in memory but keep the segments, which open() checks
+                // against the database's commit count and max id before mapping
+                loading.values().forEach(inProgress -> inProgress.stale = true);
+                resident.keySet().forEach(this::evictResident);
+            }
+        });
+    }
+
+    /**
+     * Get the columns for a repository, loading them from the database if not resident.
+     * Empty when the store is disabled, the repository would not fit in the budget,
+     * or the current transaction has ingested commits the columns do not have yet.
+     */
+    public Optional<ColumnarCommitActivity> getOrLoad(Long repositoryId) {
+        if (!enabled || ingestedInCurrentTransaction(repositoryId)) {
+            return Optional.empty();
+        }
+
+        Resident entry = resident.get(repositoryId);
+        if (entry == null) {
+            if ((long) commitRepository.countByRepositoryId(repositoryId) * 32 > maxBytes / 2) {
+                return Optional.empty();
+            }
+            entry = loadResident(repositoryId);
+        }
+
+        entry.lastAccess = System.nanoTime();
+        return Optional.of(entry.columns);
+    }
+
+    /**
+     * Get the columns for a repository only if they are already resident
+     */
+    public Optional<ColumnarCommitActivity> getIfResident(Long repositoryId) {
+        Resident entry = resident.get(repositoryId);
+        return entry != null ? Optional.of(entry.columns) : Optional.empty();
+    }
+
+    /**
+     * Append newly ingested commits to a resident repository once the ingest transaction commits
+     */
+    public void append(Long repositoryId, List<Commit> commits) {
+        if (!enabled || commits.isEmpty()) {
+            return;
+        }
+
+        markIngested(repositoryId);
+        List<CommitColumns.Row> rows = commits.stream().map(CommitColumnStore::toRow).collect(Collectors.toList());
+        TransactionHooks.afterCommit(() -> applyAppend(repositoryId, rows));
+    }
+
+    /**
+     * Drop a repository from the store
+     */
+    public void evict(Long repositoryId) {
+        markLoadStale(repositoryId);
+        evictResident(repositoryId);
+        commitSegmentStore.delete(repositoryId);
+    }
+
+    private void applyAppend(Long repositoryId, List<CommitColumns.Row> rows) {
+        // Mark first: a load installing after this check sees the mark and backs out
+        markLoadStale(repositoryId);
+
+        synchronized (appendLock(repositoryId)) {
+            Resident entry = resident.get(repositoryId);
+            if (entry == null) {
+                // Not resident here: an on-disk segment would now be missing these commits
+                commitSegmentStore.delete(repositoryId);
+                return;
+            }
+
+            try {
+                List<CommitColumns.Row> fresh = entry.columns.unseen(rows);
+                if (fresh.isEmpty()) {
+                    return;
+                }
+                Resident updated = new Resident(appendColumns(repositoryId, entry.columns, fresh));
+                if (resident.replace(repositoryId, entry, updated)) {
+                    residentBytes.addAndGet(updated.bytes - entry.bytes);
+                }
+            } catch (Exception e) {
+                log.warn("Could not append commits to column store for repository {}: {}", repositoryId, e.getMessage());
+                evict(repositoryId);
+            }
+        }
+    }
+
+    private void evictResident(Long repositoryId) {
+        Resident removed = resident.remove(repositoryId);
+        if (removed != null) {
+            residentBytes.addAndGet(-removed.bytes);
+        }
+    }
+
+    public long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    public int getResidentRepositories() {
+        return resident.size();
+    }
+
+    /**
+     * Load a repository outside the resident map, so the database query and segment I/O never block other keys.
+     * Concurrent callers for the same repository wait for the one load in progress.
+     */
+    private Resident loadResident(Long repositoryId) {
+        Loading mine = new Loading();
+        Loading inProgress = loading.putIfAbsent(repositoryId, mine);
+        if (inProgress != null) {
+            return inProgress.result.join();
+        }
+
+        try {
+            Resident loaded = load(repositoryId);
+            if (!mine.stale) {
+                Resident raced = resident.putIfAbsent(repositoryId, loaded);
+                if (raced != null) {
+                    loaded = raced;
+                } else {
+                    residentBytes.addAndGet(loaded.bytes);
+                    // An append or eviction may have marked us after the check; it either saw the entry or we back out
+                    if (mine.stale && resident.remove(repositoryId, loaded)) {
+                        residentBytes.addAndGet(-loaded.bytes);
+                    }
+                    evictIfOverBudget(repositoryId);
+                }
+            }
+            mine.result.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(repositoryId, mine);
+        }
+    }
+
+    private void markLoadStale(Long repositoryId) {
+        Loading inProgress = loading.get(repositoryId);
+        if (inProgress != null) {
+            inProgress.stale = true;
+        }
+    }
+
+    private Object appendLock(Long repositoryId) {
+        return appendLocks[(repositoryId.hashCode() & 0x7fffffff) % APPEND_LOCK_STRIPES];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void markIngested(Long repositoryId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<Long> ingested = (Set<Long>) TransactionSynchronizationManager.getResource(INGESTED_KEY);
+        if (ingested == null) {
+            ingested = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(INGESTED_KEY, ingested);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(INGESTED_KEY);
+                }
+            });
+        }
+        ingested.add(repositoryId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean ingestedInCurrentTransaction(Long repositoryId) {
+        Set<Long> ingested = (Set<Long>) TransactionSynchronizationManager.getResource(INGESTED_KEY);
+        return ingested != null && ingested.contains(repositoryId);
+    }
+
+    private Resident load(Long repositoryId) {
+        if (commitSegmentStore.isEnabled()) {
+            List<Object[]> stamp = commitRepository.getCommitCountAndMaxId(repositoryId);
+            long count = !stamp.isEmpty() && stamp.get(0)[0] != null ? ((Number) stamp.get(0)[0]).longValue() : 0;
+            long maxId = !stamp.isEmpty() && stamp.get(0)[1] != null ? ((Number) stamp.get(0)[1]).longValue() : 0;
+
+            Optional<MappedCommitSegment> segment = commitSegmentStore.open(repositoryId, count, maxId);
+            if (segment.isPresent()) {
+                Resident entry = new Resident(segment.get());
+                log.info("Mapped commit segment for repository {} ({} commits)", repositoryId, segment.get().size());
+                return entry;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        List<CommitColumns.Row> rows = commitRepository.findCommitMetricsByRepositoryId(repositoryId).stream()
+                .map(row -> new CommitColumns.Row(
+                        (Long) row[0],
+                        ColumnarCommitActivity.toEpochSecond((LocalDateTime) row[1]),
+                        row[2] != null ? (Integer) row[2] : 0,
+                        row[3] != null ? (Integer) row[3] : 0,
+                        row[4] != null ? (Integer) row[4] : 0,
+                        row[5] != null ? (String) row[5] : ""))
+                .collect(Collectors.toList());
+
+        Resident entry = new Resident(persist(repositoryId, CommitColumns.of(rows)));
+        log.info("Loaded {} commits for repository {} into column store in {}ms",
+                rows.size(), repositoryId, System.currentTimeMillis() - start);
+        return entry;
+    }
+
+    // Mapped segments grow in place by the new rows only; heap columns are rebuilt with the rows merged in
+    private ColumnarCommitActivity appendColumns(Long repositoryId, ColumnarCommitActivity columns, List<CommitColumns.Row> fresh) {
+        if (columns instanceof MappedCommitSegment segment) {
+            Optional<MappedCommitSegment> appended = commitSegmentStore.append(repositoryId, segment, fresh);
+            if (appended.isPresent()) {
+                return appended.get();
+            }
+        }
+        return CommitColumns.copyOf(columns).append(fresh);
+    }
+
+    // Write through to the segment tier when enabled and serve the mapped copy; otherwise keep the heap copy
+    private ColumnarCommitActivity persist(Long repositoryId, CommitColumns columns) {
+        return commitSegmentStore.write(repositoryId, columns)
+                .<ColumnarCommitActivity>map(segment -> segment)
+                .orElse(columns);
+    }
+
+    private void evictIfOverBudget(Long keep) {
+        while (residentBytes.get() > maxBytes) {
+            Optional<Long> coldest = resident.entrySet().stream()
+                    .filter(e -> !e.getKey().equals(keep))
+                    .min((a, b) -> Long.compare(a.getValue().lastAccess, b.getValue().lastAccess))
+                    .map(Map.Entry::getKey);
+            if (coldest.isEmpty()) {
+                return;
+            }
+            log.debug("Evicting repository {} from column store", coldest.get());
+            evictResident(coldest.get());
+        }
+    }
+
+    private static CommitColumns.Row toRow(Commit commit) {
+        return new CommitColumns.Row(
+                commit.getId(),
+                ColumnarCommitActivity.toEpochSecond(commit.getAuthorDate()),
+                commit.getAdditions() != null ? commit.getAdditions() : 0,
+                commit.getDeletions() != null ? commit.getDeletions() : 0,
+                commit.getChangedFiles() != null ? commit.getChangedFiles() : 0,
+                commit.getAuthorName() != null ? commit.getAuthorName() : "");
+    }
+
+    private static final class Loading {
+        private final CompletableFuture<Resident> result = new CompletableFuture<>();
+        private volatile boolean stale;
+    }
+
+    private static final class Resident {
+        private final ColumnarCommitActivity columns;
+        private final long bytes;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Resident(ColumnarCommitActivity columns) {
+            this.columns = columns;
+            this.bytes = columns.estimatedHeapBytes();
+        }
+    }
+}
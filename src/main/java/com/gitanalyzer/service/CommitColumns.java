@@ -0,0 +1,228 @@
+package com.gitanalyzer.service;
+
+import java.util.*;
+
+/**
+ * Immutable heap-resident columnar snapshot of a repository's commit metrics.
+ * Appends return a new snapshot, so readers never lock.
+ */
+public final class CommitColumns extends ColumnarCommitActivity {
+
+    private final long[] commitIds;
+    private final long[] epochSeconds;
+    private final int[] additions;
+    private final int[] deletions;
+    private final int[] changedFiles;
+    private final int[] authorIds;
+    private final String[] authors;
+    private final long maxCommitId;
+
+    private CommitColumns(long[] commitIds, long[] epochSeconds, int[] additions, int[] deletions, int[] changedFiles,
+                          int[] authorIds, String[] authors, long maxCommitId) {
+        this.commitIds = commitIds;
+        this.epochSeconds = epochSeconds;
+        this.additions = additions;
+        this.deletions = deletions;
+        this.changedFiles = changedFiles;
+        this.authorIds = authorIds;
+        this.authors = authors;
+        this.maxCommitId = maxCommitId;
+    }
+
+    /**
+     * Build columns from commit rows
+     */
+    public static CommitColumns of(List<Row> rows) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong(Row::epochSecond));
+
+        int size = sorted.size();
+        long[] ids = new long[size];
+        long[] epochs = new long[size];
+        int[] adds = new int[size];
+        int[] dels = new int[size];
+        int[] files = new int[size];
+        int[] authorIds = new int[size];
+        Map<String, Integer> authorIndex = new HashMap<>();
+        List<String> authors = new ArrayList<>();
+        long maxId = 0;
+
+        for (int i = 0; i < size; i++) {
+            Row row = sorted.get(i);
+            ids[i] = row.commitId() != null ? row.commitId() : 0;
+            epochs[i] = row.epochSecond();
+            adds[i] = row.additions();
+            dels[i] = row.deletions();
+            files[i] = row.changedFiles();
+            authorIds[i] = authorIndex.computeIfAbsent(row.authorName(), name -> {
+                authors.add(name);
+                return authors.size() - 1;
+            });
+            if (row.commitId() != null) {
+                maxId = Math.max(maxId, row.commitId());
+            }
+        }
+
+        return new CommitColumns(ids, epochs, adds, dels, files, authorIds, authors.toArray(new String[0]), maxId);
+    }
+
+    /**
+     * Copy any columnar source (e.g. a mapped segment) onto the heap
+     */
+    public static CommitColumns copyOf(ColumnarCommitActivity source) {
+        if (source instanceof CommitColumns columns) {
+            return columns;
+        }
+
+        int size = source.size();
+        long[] ids = new long[size];
+        long[] epochs = new long[size];
+        int[] adds = new int[size];
+        int[] dels = new int[size];
+        int[] files = new int[size];
+        int[] authorIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = source.commitIdAt(i);
+            epochs[i] = source.epochSecondAt(i);
+            adds[i] = source.additionsAt(i);
+            dels[i] = source.deletionsAt(i);
+            files[i] = source.changedFilesAt(i);
+            authorIds[i] = source.authorIdAt(i);
+        }
+
+        String[] authors = new String[source.authorCount()];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = source.authorName(i);
+        }
+
+        return new CommitColumns(ids, epochs, adds, dels, files, authorIds, authors, source.maxCommitId());
+    }
+
+    /**
+     * Return a new snapshot with the given rows merged in. Rows for commits already in the columns
+     * are skipped, so a load racing an append cannot double count.
+     */
+    public CommitColumns append(List<Row> rows) {
+        List<Row> fresh = unseen(rows).stream()
+                .sorted(Comparator.comparingLong(Row::epochSecond))
+                .toList();
+        if (fresh.isEmpty()) {
+            return this;
+        }
+
+        Map<String, Integer> authorIndex = new HashMap<>();
+        List<String> authorList = new ArrayList<>(Arrays.asList(authors));
+        for (int i = 0; i < authors.length; i++) {
+            authorIndex.put(authors[i], i);
+        }
+
+        int total = size() + fresh.size();
+        long[] newIds = new long[total];
+        long[] newEpochs = new long[total];
+        int[] newAdditions = new int[total];
+        int[] newDeletions = new int[total];
+        int[] newChangedFiles = new int[total];
+        int[] newAuthorIds = new int[total];
+        long newMaxId = maxCommitId;
+
+        // Merge two sorted runs
+        int i = 0, j = 0, k = 0;
+        while (k < total) {
+            if (j >= fresh.size() || (i < size() && epochSeconds[i] <= fresh.get(j).epochSecond())) {
+                newIds[k] = commitIds[i];
+                newEpochs[k] = epochSeconds[i];
+                newAdditions[k] = additions[i];
+                newDeletions[k] = deletions[i];
+                newChangedFiles[k] = changedFiles[i];
+                newAuthorIds[k] = authorIds[i];
+                i++;
+            } else {
+                Row row = fresh.get(j);
+                newIds[k] = row.commitId() != null ? row.commitId() : 0;
+                newEpochs[k] = row.epochSecond();
+                newAdditions[k] = row.additions();
+                newDeletions[k] = row.deletions();
+                newChangedFiles[k] = row.changedFiles();
+                newAuthorIds[k] = authorIndex.computeIfAbsent(row.authorName(), name -> {
+                    authorList.add(name);
+                    return authorList.size() - 1;
+                });
+                if (row.commitId() != null) {
+                    newMaxId = Math.max(newMaxId, row.commitId());
+                }
+                j++;
+            }
+            k++;
+        }
+
+        return new CommitColumns(newIds, newEpochs, newAdditions, newDeletions, newChangedFiles, newAuthorIds,
+                authorList.toArray(new String[0]), newMaxId);
+    }
+
+    @Override
+    public int size() {
+        return epochSeconds.length;
+    }
+
+    @Override
+    public long commitIdAt(int index) {
+        return commitIds[index];
+    }
+
+    @Override
+    public long epochSecondAt(int index) {
+        return epochSeconds[index];
+    }
+
+    @Override
+    public int additionsAt(int index) {
+        return additions[index];
+    }
+
+    @Override
+    public int deletionsAt(int index) {
+        return deletions[index];
+    }
+
+    @Override
+    public int changedFilesAt(int index) {
+        return changedFiles[index];
+    }
+
+    @Override
+    public int authorIdAt(int index) {
+        return authorIds[index];
+    }
+
+    @Override
+    public int authorCount() {
+        return authors.length;
+    }
+
+    @Override
+    public String authorName(int authorId) {
+        return authors[authorId];
+    }
+
+    @Override
+    public long maxCommitId() {
+        return maxCommitId;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        long columnBytes = (long) size() * (2L * Long.BYTES + 4L * Integer.BYTES);
+        long dictionaryBytes = 0;
+        for (String author : authors) {
+            dictionaryBytes += 48 + 2L * author.length();
+        }
+        return 128 + columnBytes + dictionaryBytes;
+    }
+
+    /**
+     * One commit's metrics as loaded from the database or ingest
+     */
+    public record Row(Long commitId, long epochSecond, int additions, int deletions, int changedFiles,
+                      String authorName) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.GitHubApiResponse;
+import com.gitanalyzer.model.Commit;
+import com.gitanalyzer.model.Repository;
+import com.gitanalyzer.repository.CommitDailyStatRepository;
+import com.gitanalyzer.repository.CommitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Persists commits fetched from GitHub and keeps the commit_daily_stats rollup, the
+ * in-memory column store and the analytics cache in step with them.
+ * All commit ingestion goes through here so derived data never drifts from the commits table.
+ */
+@Slf4j
+@Service
+public class CommitIngestionService {
+
+    @Autowired
+    private CommitRepository commitRepository;
+
+    @Autowired
+    private CommitDailyStatRepository commitDailyStatRepository;
+
+    @Autowired
+    private GitHubApiService gitHubApiService;
+
+    @Autowired
+    private CommitColumnStore commitColumnStore;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    /**
+     * Save commits that are not stored yet and update the rollup for them
+     */
+    @Transactional
+    public List<Commit> saveNewCommits(Repository repository, List<GitHubApiResponse.GitHubCommit> githubCommits) {
+        if (githubCommits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // One lookup for the whole page instead of an existence check per commit
+        Set<String> known = new HashSet<>(commitRepository.findExistingShas(
+                githubCommits.stream().map(GitHubApiResponse.GitHubCommit::getSha).toList()));
+
+        List<Commit> fresh = new ArrayList<>();
+        for (GitHubApiResponse.GitHubCommit githubCommit : githubCommits) {
+            // Only save if not already exists
+            if (known.add(githubCommit.getSha())) {
+                fresh.add(gitHubApiService.convertToCommitEntity(githubCommit, repository));
+            }
+        }
+        List<Commit> saved = fresh.isEmpty() ? fresh : commitRepository.saveAll(fresh);
+
+        if (!saved.isEmpty()) {
+            updateRollup(repository, saved);
+            commitColumnStore.append(repository.getId(), saved);
+            // Delivered to the other nodes when this transaction commits
+            clusterInvalidationBus.publish(ClusterInvalidationBus.Invalidation.COMMITS, String.valueOf(repository.getId()));
+            evictCachedAnalytics(repository);
+        }
+
+        return saved;
+    }
+
+    /**
+     * Make sure a repository has a rollup, rebuilding it from raw commits if it is missing
+     */
+    @Transactional
+    public void ensureRollup(Repository repository) {
+        if (!commitDailyStatRepository.existsByRepositoryId(repository.getId())
+                && commitRepository.countByRepositoryId(repository.getId()) > 0) {
+            rebuildRollup(repository);
+        }
+    }
+
+    /**
+     * Rebuild the rollup for a repository from its raw commits
+     */
+    @Transactional
+    public void rebuildRollup(Repository repository) {
+        commitDailyStatRepository.deleteByRepositoryId(repository.getId());
+        int buckets = commitDailyStatRepository.rebuildFromCommits(repository.getId());
+        log.info("Rebuilt commit rollup for repository {} ({} buckets)", repository.getFullName(), buckets);
+    }
+
+    private void evictCachedAnalytics(Repository repository) {
+        String fullName = repository.getFullName();
+        TransactionHooks.afterCommit(() -> {
+            analyticsCache.evictRepository(fullName);
+            if (fullName != null && fullName.contains("/")) {
+                analyticsCache.evictUser(fullName.substring(0, fullName.indexOf('/')));
+            }
+        });
+    }
+
+    private void updateRollup(Repository repository, List<Commit> newCommits) {
+        // Repositories ingested before the rollup existed get a full rebuild (which includes the new commits)
+        if (!commitDailyStatRepository.existsByRepositoryId(repository.getId())) {
+            commitRepository.flush();
+            rebuildRollup(repository);
+            return;
+        }
+
+        // Pre-aggregate the batch so each bucket is written once
+        Map<BucketKey, int[]> buckets = new HashMap<>();
+        for (Commit commit : newCommits) {
+            if (commit.getAuthorDate() == null) continue;
+
+            BucketKey key = new BucketKey(
+                    commit.getAuthorDate().toLocalDate(),
+                    commit.getAuthorDate().getHour(),
+                    commit.getAuthorName() != null ? commit.getAuthorName() : "");
+            int[] totals = buckets.computeIfAbsent(key, k -> new int[4]);
+            totals[0]++;
+            totals[1] += commit.getAdditions() != null ? commit.getAdditions() : 0;
+            totals[2] += commit.getDeletions() != null ? commit.getDeletions() : 0;
+            totals[3] += commit.getChangedFiles() != null ? commit.getChangedFiles() : 0;
+        }
+
+        buckets.forEach((key, totals) -> commitDailyStatRepository.incrementBucket(
+                repository.getId(), key.date(), key.hour(), key.authorName(),
+                totals[0], totals[1], totals[2], totals[3]));
+    }
+
+    private record BucketKey(LocalDate date, int hour, String authorName) {
+    }
+}
@@ -0,0 +1,288 @@
+package com.gitanalyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Optional on-disk tier for the column store: one fixed-width, memory-mapped records file per
+ * repository plus a small author dictionary, so commit metrics survive restarts without reloading them
+ * from PostgreSQL. New commits are appended to the tail and the header count is updated afterwards,
+ * so an ingest costs I/O for the new rows only.
+ * PostgreSQL stays the system of record; a segment is only trusted when it matches the commits table.
+ */
+@Slf4j
+@Service
+public class CommitSegmentStore {
+
+    @Value("${analytics.segments.enabled:false}")
+    private boolean enabled;
+
+    @Value("${analytics.segments.directory:data/segments}")
+    private String directory;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Map the segment for a repository if it exists and covers exactly the expected commits
+     */
+    public Optional<MappedCommitSegment> open(Long repositoryId, long expectedCount, long expectedMaxCommitId) {
+        Path path = segmentPath(repositoryId);
+        if (!enabled || !Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedCommitSegment segment = MappedCommitSegment.open(map(channel), readAuthors(repositoryId));
+
+            if (segment.size() != expectedCount || segment.maxCommitId() != expectedMaxCommitId) {
+                log.info("Discarding stale commit segment for repository {} ({} commits on disk, {} in database)",
+                        repositoryId, segment.size(), expectedCount);
+                delete(repositoryId);
+                return Optional.empty();
+            }
+
+            return Optional.of(segment);
+
+        } catch (Exception e) {
+            log.warn("Could not open commit segment for repository {}: {}", repositoryId, e.getMessage());
+            delete(repositoryId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Write a repository's full segment (atomically replacing any previous one) and map the result.
+     * Used when a repository is first loaded; later ingests go through append.
+     */
+    public Optional<MappedCommitSegment> write(Long repositoryId, ColumnarCommitActivity columns) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Path path = segmentPath(repositoryId);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Path authorsPath = authorsPath(repositoryId);
+        Path authorsTemp = authorsPath.resolveSibling(authorsPath.getFileName() + ".tmp");
+
+        try {
+            Files.createDirectories(path.getParent());
+
+            String[] authors = new String[columns.authorCount()];
+            for (int i = 0; i < authors.length; i++) {
+                authors[i] = columns.authorName(i);
+            }
+            Files.write(authorsTemp, encodeAuthors(Arrays.asList(authors)));
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer records = ByteBuffer.allocate(64 * 1024);
+                long position = MappedCommitSegment.HEADER_BYTES;
+                for (int i = 0; i < columns.size(); i++) {
+                    if (records.remaining() < MappedCommitSegment.RECORD_BYTES) {
+                        position += writeFully(channel, records, position);
+                    }
+                    putRecord(records, columns.commitIdAt(i), columns.epochSecondAt(i), columns.additionsAt(i),
+                            columns.deletionsAt(i), columns.changedFilesAt(i), columns.authorIdAt(i));
+                }
+                writeFully(channel, records, position);
+                writeFully(channel, header(columns.size(), columns.maxCommitId()), 0);
+                channel.force(false);
+            }
+
+            // Authors first: a records file never references authors that are not on disk
+            Files.move(authorsTemp, authorsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return Optional.of(MappedCommitSegment.open(map(channel), authors));
+            }
+
+        } catch (IOException e) {
+            log.warn("Could not write commit segment for repository {}: {}", repositoryId, e.getMessage());
+            deleteQuietly(temp);
+            deleteQuietly(authorsTemp);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Append commits to a repository's segment and map the grown file.
+     * Rows must be new to the segment; the caller serializes appends per repository.
+     */
+    public Optional<MappedCommitSegment> append(Long repositoryId, MappedCommitSegment segment, List<CommitColumns.Row> rows) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            List<CommitColumns.Row> sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.comparingLong(CommitColumns.Row::epochSecond));
+
+            // New authors go to the dictionary before any record refers to them
+            String[] known = segment.authors();
+            Map<String, Integer> authorIndex = new HashMap<>();
+            for (int i = 0; i < known.length; i++) {
+                authorIndex.put(known[i], i);
+            }
+            List<String> added = new ArrayList<>();
+            for (CommitColumns.Row row : sorted) {
+                if (!authorIndex.containsKey(row.authorName())) {
+                    authorIndex.put(row.authorName(), known.length + added.size());
+                    added.add(row.authorName());
+                }
+            }
+            if (!added.isEmpty()) {
+                try (FileChannel channel = FileChannel.open(authorsPath(repositoryId), StandardOpenOption.WRITE)) {
+                    // Cut off any entry torn by an interrupted append before adding ours
+                    long end = encodeAuthors(Arrays.asList(known)).length;
+                    if (channel.size() < end) {
+                        throw new IOException("Author dictionary is shorter than the segment expects");
+                    }
+                    channel.truncate(end);
+                    ByteBuffer encoded = ByteBuffer.wrap(encodeAuthors(added));
+                    encoded.position(encoded.limit());
+                    writeFully(channel, encoded, end);
+                }
+            }
+
+            long count = segment.size() + sorted.size();
+            long maxCommitId = segment.maxCommitId();
+            try (FileChannel channel = FileChannel.open(segmentPath(repositoryId), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer records = ByteBuffer.allocate(sorted.size() * MappedCommitSegment.RECORD_BYTES);
+                for (CommitColumns.Row row : sorted) {
+                    long commitId = row.commitId() != null ? row.commitId() : 0;
+                    maxCommitId = Math.max(maxCommitId, commitId);
+                    putRecord(records, commitId, row.epochSecond(), row.additions(), row.deletions(),
+                            row.changedFiles(), authorIndex.get(row.authorName()));
+                }
+
+                // Records past the header count are ignored, so a crash before the header update loses nothing
+                writeFully(channel, records, MappedCommitSegment.offset(segment.size()));
+                channel.force(false);
+                writeFully(channel, header(count, maxCommitId), 0);
+
+                String[] authors = Arrays.copyOf(known, known.length + added.size());
+                for (int i = 0; i < added.size(); i++) {
+                    authors[known.length + i] = added.get(i);
+                }
+                return Optional.of(segment.appended(map(channel), authors));
+            }
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not append to commit segment for repository {}: {}", repositoryId, e.getMessage());
+            delete(repositoryId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remove a repository's segment so it is rebuilt from the database on next load
+     */
+    public void delete(Long repositoryId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(segmentPath(repositoryId));
+            Files.deleteIfExists(authorsPath(repositoryId));
+        } catch (IOException e) {
+            log.warn("Could not delete commit segment for repository {}: {}", repositoryId, e.getMessage());
+        }
+    }
+
+    // Maps exactly the records the header counts, ignoring any unacknowledged tail
+    private static ByteBuffer map(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MappedCommitSegment.HEADER_BYTES);
+        channel.read(header, 0);
+        long count = header.getLong(8);
+        long length = MappedCommitSegment.HEADER_BYTES + count * MappedCommitSegment.RECORD_BYTES;
+        if (length > channel.size()) {
+            throw new IOException("Commit segment is shorter than its header says");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+    }
+
+    private String[] readAuthors(Long repositoryId) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(authorsPath(repositoryId)));
+        List<String> authors = new ArrayList<>();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                // Torn entry from an interrupted append; no record can refer to it
+                break;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            authors.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return authors.toArray(new String[0]);
+    }
+
+    private static byte[] encodeAuthors(List<String> authors) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String author : authors) {
+            byte[] bytes = author.getBytes(StandardCharsets.UTF_8);
+            out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            out.writeBytes(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static ByteBuffer header(long count, long maxCommitId) {
+        return ByteBuffer.allocate(MappedCommitSegment.HEADER_BYTES)
+                .putInt(MappedCommitSegment.MAGIC)
+                .putInt(MappedCommitSegment.VERSION)
+                .putLong(count)
+                .putLong(maxCommitId)
+                .putInt(0)
+                .putInt(0);
+    }
+
+    private static void putRecord(ByteBuffer out, long commitId, long epochSecond, int additions, int deletions,
+                                  int changedFiles, int authorId) {
+        out.putLong(commitId)
+                .putLong(epochSecond)
+                .putInt(additions)
+                .putInt(deletions)
+                .putInt(changedFiles)
+                .putInt(authorId);
+    }
+
+    // Write the buffer's contents at a position and clear it; returns the bytes written
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    private Path segmentPath(Long repositoryId) {
+        return Paths.get(directory, "repo-" + repositoryId + ".seg");
+    }
+
+    private Path authorsPath(Long repositoryId) {
+        return Paths.get(directory, "repo-" + repositoryId + ".authors");
+    }
+}
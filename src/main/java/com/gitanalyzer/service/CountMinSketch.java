@@ -0,0 +1,83 @@
+package com.gitanalyzer.service;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Count-Min sketch over strings. Estimates never undercount; with width w and depth d
+ * they overcount by at most e/w of the total with probability 1 - e^-d. Sketches of equal shape merge by addition.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counts;
+
+    public CountMinSketch(int width, int depth) {
+        this.width = Math.max(16, width);
+        this.depth = Math.max(1, depth);
+        this.counts = new AtomicLongArray(this.width * this.depth);
+    }
+
+    public void add(String key, long increment) {
+        long hash = BloomFilter.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counts.addAndGet(row * width + Math.floorMod(h1 + row * h2, width), increment);
+        }
+    }
+
+    public long estimate(String key) {
+        long hash = BloomFilter.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts.get(row * width + Math.floorMod(h1 + row * h2, width)));
+        }
+        return min;
+    }
+
+    /**
+     * Add another sketch's counts into this one; both must have the same width and depth
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches of different shapes");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            long value = other.counts.get(i);
+            if (value != 0) {
+                counts.addAndGet(i, value);
+            }
+        }
+    }
+
+    public byte[] toBytes() {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(width);
+            out.writeInt(depth);
+            for (int i = 0; i < counts.length(); i++) {
+                out.writeLong(counts.get(i));
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static CountMinSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+            for (int i = 0; i < sketch.counts.length(); i++) {
+                sketch.counts.set(i, in.readLong());
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Optional;
 public class GitHubApiService {
 
     private final RestTemplate restTemplate;
+    private final NegativeLookupCache negativeLookupCache;
 
     @Value("${github.api.token}")
     private String githubToken;
@@ -31,14 +32,19 @@ public class GitHubApiService {
     @Value("${github.api.base-url}")
     private String baseUrl;
 
-    public GitHubApiService(RestTemplate restTemplate) {
+    public GitHubApiService(RestTemplate restTemplate, NegativeLookupCache negativeLookupCache) {
         this.restTemplate = restTemplate;
+        this.negativeLookupCache = negativeLookupCache;
     }
 
     /**
      * Get GitHub user information
      */
     public Optional<GitHubApiResponse.GitHubUser> getUser(String username) {
+        if (negativeLookupCache.isUserMissing(username)) {
+            return Optional.empty();
+        }
+
         try {
             String url = baseUrl + "/users/" + username;
             log.info("Fetching user data for: {}", username);
@@ -59,6 +65,7 @@ public class GitHubApiService {
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
                 log.warn("User not found: {}", username);
+                negativeLookupCache.recordUserMissing(username);
             } else {
                 log.error("Client error fetching user {}: {} - {}", username, e.getStatusCode(), e.getMessage());
             }
@@ -116,6 +123,10 @@ public class GitHubApiService {
      * Get repository information
      */
     public Optional<GitHubApiResponse.GitHubRepository> getRepository(String owner, String repoName) {
+        if (negativeLookupCache.isRepositoryMissing(owner, repoName)) {
+            return Optional.empty();
+        }
+
         try {
             String url = baseUrl + "/repos/" + owner + "/" + repoName;
             log.info("Fetching repository data for: {}/{}", owner, repoName);
@@ -136,6 +147,7 @@ public class GitHubApiService {
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
                 log.warn("Repository not found: {}/{}", owner, repoName);
+                negativeLookupCache.recordRepositoryMissing(owner, repoName);
             } else {
                 log.error("Client error fetching repository {}/{}: {} - {}", owner, repoName, e.getStatusCode(), e.getMessage());
             }
@@ -0,0 +1,95 @@
+package com.gitanalyzer.service;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: exact below 16ms, then every power of two
+ * is split into 16 sub-buckets, so any recorded value is reported within 1/16 (about 6%).
+ * Histograms are plain bucket-count arrays, so they merge by element-wise addition, including in SQL.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Values above about 4.6 hours land in the top bucket
+    private static final int MAX_EXPONENT = 24;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long total;
+
+    public void record(long valueMs) {
+        add(indexOf(valueMs), 1);
+    }
+
+    /**
+     * Add a count to a bucket, e.g. when merging stored bucket arrays
+     */
+    public void add(int index, long count) {
+        if (index < 0 || index >= BUCKET_COUNT || count <= 0) {
+            return;
+        }
+        counts[index] += count;
+        total += count;
+    }
+
+    public long getTotalCount() {
+        return total;
+    }
+
+    /**
+     * Smallest value v such that at least quantile of the recordings are <= v (within bucket resolution)
+     */
+    public long valueAtQuantile(double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Bucket counts as a PostgreSQL array literal, without trailing empty buckets
+     */
+    public String toArrayLiteral() {
+        int length = BUCKET_COUNT;
+        while (length > 0 && counts[length - 1] == 0) {
+            length--;
+        }
+        StringBuilder literal = new StringBuilder("{");
+        for (int i = 0; i < length; i++) {
+            literal.append(i == 0 ? "" : ",").append(counts[i]);
+        }
+        return literal.append('}').toString();
+    }
+
+    static int indexOf(long valueMs) {
+        long value = Math.max(0, valueMs);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,302 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.LiveSearchMetricsDto;
+import com.gitanalyzer.model.UrlSearchLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live search traffic over the last 1, 5 and 15 minutes, kept entirely in memory on this node.
+ * Counters live in a ring of per-second buckets and target counts in a ring of 10-second buckets;
+ * a bucket whose second has passed is swapped for a fresh one by CAS, so the search path never locks.
+ */
+@Slf4j
+@Service
+public class LiveSearchMetrics {
+
+    static final int[] WINDOW_SECONDS = {60, 300, 900};
+
+    private static final int HISTORY_SECONDS = 900;
+    private static final int TARGET_BUCKET_SECONDS = 10;
+    private static final int TOP_TARGETS = 10;
+
+    @Value("${analytics.live.enabled:true}")
+    private boolean enabled;
+
+    // Distinct targets tracked per 10-second bucket; further ones only count towards the totals
+    @Value("${analytics.live.max-targets-per-bucket:2000}")
+    private int maxTargetsPerBucket;
+
+    @Value("${analytics.live.max-subscribers:100}")
+    private int maxSubscribers;
+
+    @Value("${analytics.live.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    // Consecutive broadcasts a subscriber may miss while its previous event is still being written
+    @Value("${analytics.live.max-missed-events:5}")
+    private int maxMissedEvents;
+
+    @Autowired
+    @Qualifier("liveMetricsExecutor")
+    private TaskExecutor sendExecutor;
+
+    // One extra slot so the current second never overwrites the oldest one still in the window
+    private final AtomicReferenceArray<CounterBucket> counters = new AtomicReferenceArray<>(HISTORY_SECONDS + 1);
+    private final AtomicReferenceArray<TargetBucket> targets =
+            new AtomicReferenceArray<>(HISTORY_SECONDS / TARGET_BUCKET_SECONDS + 1);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Count a finished search
+     */
+    public void record(UrlSearchLog searchLog) {
+        if (!enabled) {
+            return;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        CounterBucket bucket = counterBucket(second);
+        bucket.total.increment();
+        if ("SUCCESS".equals(searchLog.getResponseStatus())) {
+            bucket.successful.increment();
+        }
+        if (searchLog.getProcessingTimeMs() != null) {
+            bucket.timed.increment();
+            bucket.timeSum.add(searchLog.getProcessingTimeMs());
+        }
+
+        if (searchLog.getExtractedUsername() == null) {
+            return;
+        }
+        if ("USER_PROFILE".equals(searchLog.getSearchType())) {
+            TargetBucket targetBucket = targetBucket(second);
+            targetBucket.count(targetBucket.users, key(searchLog.getExtractedUsername()));
+        } else if ("REPOSITORY".equals(searchLog.getSearchType()) && searchLog.getExtractedRepo() != null) {
+            TargetBucket targetBucket = targetBucket(second);
+            targetBucket.count(targetBucket.repositories, key(searchLog.getExtractedUsername() + "/" + searchLog.getExtractedRepo()));
+        }
+    }
+
+    /**
+     * Current figures for every window
+     */
+    public LiveSearchMetricsDto snapshot() {
+        long now = System.currentTimeMillis() / 1000;
+        Map<String, LiveSearchMetricsDto.WindowDto> windows = new LinkedHashMap<>();
+        for (int windowSeconds : WINDOW_SECONDS) {
+            windows.put((windowSeconds / 60) + "m", window(now, windowSeconds));
+        }
+        return LiveSearchMetricsDto.builder()
+                .generatedAt(LocalDateTime.now())
+                .windows(windows)
+                .build();
+    }
+
+    /**
+     * Open a server-sent event stream that receives a snapshot on every broadcast
+     */
+    public SseEmitter subscribe() throws IOException {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live metric subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        emitter.send(SseEmitter.event().name("metrics").data(snapshot()));
+        return emitter;
+    }
+
+    /**
+     * Hand the current snapshot to every subscriber. Events are written on the send executor, at most one
+     * in flight per subscriber; a subscriber still busy with an earlier event skips this one, and one that
+     * keeps falling behind is disconnected.
+     */
+    @Scheduled(fixedDelayString = "${analytics.live.stream-interval-ms:2000}")
+    public void broadcast() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        LiveSearchMetricsDto metrics = snapshot();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.sending.compareAndSet(false, true)) {
+                if (++subscriber.missed > maxMissedEvents) {
+                    log.debug("Dropping live metrics subscriber that stopped reading");
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                }
+                continue;
+            }
+
+            subscriber.missed = 0;
+            try {
+                sendExecutor.execute(() -> send(subscriber, metrics));
+            } catch (TaskRejectedException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, LiveSearchMetricsDto metrics) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().name("metrics").data(metrics));
+        } catch (Exception e) {
+            log.debug("Dropping live metrics subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private LiveSearchMetricsDto.WindowDto window(long now, int windowSeconds) {
+        long from = now - windowSeconds;
+        long total = 0;
+        long successful = 0;
+        long timed = 0;
+        long timeSum = 0;
+        for (int i = 0; i < counters.length(); i++) {
+            CounterBucket bucket = counters.get(i);
+            if (bucket != null && bucket.second > from && bucket.second <= now) {
+                total += bucket.total.sum();
+                successful += bucket.successful.sum();
+                timed += bucket.timed.sum();
+                timeSum += bucket.timeSum.sum();
+            }
+        }
+
+        // Target buckets are coarser, so the oldest one may reach up to 10 seconds past the window
+        Map<String, Long> users = new HashMap<>();
+        Map<String, Long> repositories = new HashMap<>();
+        for (int i = 0; i < targets.length(); i++) {
+            TargetBucket bucket = targets.get(i);
+            if (bucket != null && bucket.start > from - TARGET_BUCKET_SECONDS && bucket.start <= now) {
+                bucket.users.forEach((key, count) -> users.merge(key, count.get(), Long::sum));
+                bucket.repositories.forEach((key, count) -> repositories.merge(key, count.get(), Long::sum));
+            }
+        }
+
+        return LiveSearchMetricsDto.WindowDto.builder()
+                .windowSeconds(windowSeconds)
+                .totalSearches(total)
+                .successfulSearches(successful)
+                .searchesPerSecond((double) total / windowSeconds)
+                .successRate(total > 0 ? (double) successful / total * 100 : 0.0)
+                .averageProcessingTime(timed > 0 ? (double) timeSum / timed : 0.0)
+                .topUsers(top(users))
+                .topRepositories(top(repositories))
+                .build();
+    }
+
+    private CounterBucket counterBucket(long second) {
+        int index = (int) (second % counters.length());
+        while (true) {
+            CounterBucket current = counters.get(index);
+            if (current != null && current.second == second) {
+                return current;
+            }
+            CounterBucket fresh = new CounterBucket(second);
+            if (counters.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private TargetBucket targetBucket(long second) {
+        long start = second - second % TARGET_BUCKET_SECONDS;
+        int index = (int) ((start / TARGET_BUCKET_SECONDS) % targets.length());
+        while (true) {
+            TargetBucket current = targets.get(index);
+            if (current != null && current.start == start) {
+                return current;
+            }
+            TargetBucket fresh = new TargetBucket(start);
+            if (targets.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static List<LiveSearchMetricsDto.TargetCountDto> top(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_TARGETS)
+                .map(entry -> LiveSearchMetricsDto.TargetCountDto.builder()
+                        .target(entry.getKey())
+                        .searchCount(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        // Only updated by broadcast, which never overlaps itself
+        volatile int missed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private static final class CounterBucket {
+        final long second;
+        final LongAdder total = new LongAdder();
+        final LongAdder successful = new LongAdder();
+        final LongAdder timed = new LongAdder();
+        final LongAdder timeSum = new LongAdder();
+
+        CounterBucket(long second) {
+            this.second = second;
+        }
+    }
+
+    private final class TargetBucket {
+        final long start;
+        final Map<String, AtomicLong> users = new ConcurrentHashMap<>();
+        final Map<String, AtomicLong> repositories = new ConcurrentHashMap<>();
+
+        TargetBucket(long start) {
+            this.start = start;
+        }
+
+        void count(Map<String, AtomicLong> counts, String key) {
+            AtomicLong count = counts.get(key);
+            if (count == null) {
+                if (counts.size() >= maxTargetsPerBucket) {
+                    return;
+                }
+                count = counts.computeIfAbsent(key, k -> new AtomicLong());
+            }
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.gitanalyzer.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view over a memory-mapped commit segment written by {@link CommitSegmentStore}.
+ * Column reads are absolute buffer gets against the page cache: no copy and no allocation.
+ * Records are kept in the order they were appended, each append batch sorted by author time;
+ * a heap permutation (4 bytes per commit) gives the fully sorted order the column reads use.
+ *
+ * Records file layout (big-endian):
+ *   header  - int magic, int version, long recordCount, long maxCommitId, int reserved, int reserved
+ *   records - recordCount x (long commitId, long epochSecond, int additions, int deletions, int changedFiles, int authorId)
+ * Authors file: (int byteLength, UTF-8 bytes) per author, in author id order, appended as new authors appear
+ */
+public final class MappedCommitSegment extends ColumnarCommitActivity {
+
+    static final int MAGIC = 0x47434153; // "GCAS"
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 32;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long maxCommitId;
+    private final String[] authors;
+
+    // Sorted row index -> record index
+    private final int[] order;
+
+    private MappedCommitSegment(ByteBuffer buffer, String[] authors, int[] order) {
+        this.buffer = buffer;
+        this.size = order.length;
+        this.maxCommitId = buffer.getLong(16);
+        this.authors = authors;
+        this.order = order;
+    }
+
+    /**
+     * View a mapped records file, sorting its records by author time
+     */
+    static MappedCommitSegment open(ByteBuffer buffer, String[] authors) {
+        checkHeader(buffer);
+        int size = Math.toIntExact(buffer.getLong(8));
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (!isSorted(buffer, order)) {
+            order = mergeSort(buffer, order);
+        }
+        return new MappedCommitSegment(buffer, authors, order);
+    }
+
+    /**
+     * View the same file after records were appended to it; the new records (one sorted batch)
+     * are merged into this segment's order in linear time
+     */
+    MappedCommitSegment appended(ByteBuffer newBuffer, String[] newAuthors) {
+        checkHeader(newBuffer);
+        int newSize = Math.toIntExact(newBuffer.getLong(8));
+
+        int[] merged = new int[newSize];
+        int i = 0, j = size, k = 0;
+        while (k < newSize) {
+            if (j >= newSize || (i < size && epochAt(newBuffer, order[i]) <= epochAt(newBuffer, j))) {
+                merged[k++] = order[i++];
+            } else {
+                merged[k++] = j++;
+            }
+        }
+        return new MappedCommitSegment(newBuffer, newAuthors, merged);
+    }
+
+    String[] authors() {
+        return authors;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long commitIdAt(int index) {
+        return buffer.getLong(offset(order[index]));
+    }
+
+    @Override
+    public long epochSecondAt(int index) {
+        return buffer.getLong(offset(order[index]) + 8);
+    }
+
+    @Override
+    public int additionsAt(int index) {
+        return buffer.getInt(offset(order[index]) + 16);
+    }
+
+    @Override
+    public int deletionsAt(int index) {
+        return buffer.getInt(offset(order[index]) + 20);
+    }
+
+    @Override
+    public int changedFilesAt(int index) {
+        return buffer.getInt(offset(order[index]) + 24);
+    }
+
+    @Override
+    public int authorIdAt(int index) {
+        return buffer.getInt(offset(order[index]) + 28);
+    }
+
+    @Override
+    public int authorCount() {
+        return authors.length;
+    }
+
+    @Override
+    public String authorName(int authorId) {
+        return authors[authorId];
+    }
+
+    @Override
+    public long maxCommitId() {
+        return maxCommitId;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        // Records live in the page cache; only the order and the dictionary are on the heap
+        long dictionaryBytes = 0;
+        for (String author : authors) {
+            dictionaryBytes += 48 + 2L * author.length();
+        }
+        return 128 + (long) order.length * Integer.BYTES + dictionaryBytes;
+    }
+
+    static int offset(int record) {
+        return Math.toIntExact(HEADER_BYTES + (long) record * RECORD_BYTES);
+    }
+
+    private static void checkHeader(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a commit segment (bad magic or version)");
+        }
+    }
+
+    private static long epochAt(ByteBuffer buffer, int record) {
+        return buffer.getLong(offset(record) + 8);
+    }
+
+    private static boolean isSorted(ByteBuffer buffer, int[] order) {
+        for (int i = 1; i < order.length; i++) {
+            if (epochAt(buffer, order[i - 1]) > epochAt(buffer, order[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Stable bottom-up merge sort of record indexes by author time
+    private static int[] mergeSort(ByteBuffer buffer, int[] order) {
+        int[] from = order;
+        int[] to = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int start = 0; start < order.length; start += 2 * width) {
+                int mid = Math.min(start + width, order.length);
+                int end = Math.min(start + 2 * width, order.length);
+                int i = start, j = mid, k = start;
+                while (k < end) {
+                    if (j >= end || (i < mid && epochAt(buffer, from[i]) <= epochAt(buffer, from[j]))) {
+                        to[k++] = from[i++];
+                    } else {
+                        to[k++] = from[j++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,142 @@
+package com.gitanalyzer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers GitHub users and repositories that returned 404, for a limited time,
+ * so repeated lookups of a missing name do not spend API budget.
+ * A Bloom filter in front answers the common "never seen missing" case without touching the cache.
+ */
+@Slf4j
+@Service
+public class NegativeLookupCache {
+
+    public static final String USER = "user";
+    public static final String REPOSITORY = "repository";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${github.negative-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${github.negative-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${github.negative-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private Cache<String, Boolean> missing;
+    private volatile BloomFilter bloomFilter;
+    private final AtomicInteger bloomInsertions = new AtomicInteger();
+    private Counter userHits;
+    private Counter repositoryHits;
+
+    @PostConstruct
+    void init() {
+        missing = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        bloomFilter = newBloomFilter();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "github.negative");
+        userHits = Counter.builder("github.negative_cache.hits")
+                .description("GitHub lookups short-circuited as known missing")
+                .tag("type", USER)
+                .register(meterRegistry);
+        repositoryHits = Counter.builder("github.negative_cache.hits")
+                .description("GitHub lookups short-circuited as known missing")
+                .tag("type", REPOSITORY)
+                .register(meterRegistry);
+    }
+
+    public boolean isUserMissing(String username) {
+        return isMissing(USER, username);
+    }
+
+    /**
+     * A repository is missing if it returned 404 or its owner did
+     */
+    public boolean isRepositoryMissing(String owner, String repoName) {
+        return isMissing(USER, owner) || isMissing(REPOSITORY, owner + "/" + repoName);
+    }
+
+    public void recordUserMissing(String username) {
+        record(USER, username);
+    }
+
+    public void recordRepositoryMissing(String owner, String repoName) {
+        record(REPOSITORY, owner + "/" + repoName);
+    }
+
+    /**
+     * Whether a lookup returned 404 within the TTL, without counting it as a short-circuit
+     */
+    public boolean wasRecentlyNotFound(String type, String name) {
+        return enabled && missing.getIfPresent(key(type, name)) != null;
+    }
+
+    private boolean isMissing(String type, String name) {
+        if (!enabled) {
+            return false;
+        }
+
+        String key = key(type, name);
+        // The filter never forgets, so a positive is confirmed against the TTL-bounded cache
+        if (!bloomFilter.mightContain(key) || missing.getIfPresent(key) == null) {
+            return false;
+        }
+
+        (USER.equals(type) ? userHits : repositoryHits).increment();
+        log.debug("Skipping GitHub lookup for known missing {} {}", type, name);
+        return true;
+    }
+
+    private void record(String type, String name) {
+        if (!enabled) {
+            return;
+        }
+
+        String key = key(type, name);
+        missing.put(key, Boolean.TRUE);
+        bloomFilter.put(key);
+
+        // Entries expire from the cache but not from the filter; rebuild it before it saturates
+        if (bloomInsertions.incrementAndGet() > 2 * maxEntries) {
+            rebuildBloomFilter();
+        }
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        if (bloomInsertions.get() <= 2 * maxEntries) {
+            return;
+        }
+        BloomFilter rebuilt = newBloomFilter();
+        missing.asMap().keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        bloomInsertions.set((int) missing.estimatedSize());
+    }
+
+    private BloomFilter newBloomFilter() {
+        return new BloomFilter(2 * maxEntries, 0.01);
+    }
+
+    private static String key(String type, String name) {
+        return type + ":" + name.toLowerCase(Locale.ROOT);
+    }
+}
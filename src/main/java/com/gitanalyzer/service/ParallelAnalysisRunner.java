@@ -0,0 +1,132 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.ComparisonDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Runs one analysis per item concurrently for comparison requests.
+ * At most max-concurrency items of a request run at once, and whatever has not finished by the
+ * deadline is reported as timed out; it keeps running in the background and still fills the caches.
+ * Lanes never run on the calling thread, so the deadline holds even when the lane executor is saturated.
+ */
+@Slf4j
+@Service
+public class ParallelAnalysisRunner {
+
+    @Autowired
+    @Qualifier("analyticsCompareExecutor")
+    private AsyncTaskExecutor executor;
+
+    @Value("${analytics.compare.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${analytics.compare.deadline-ms:20000}")
+    private long deadlineMs;
+
+    /**
+     * Analyze every key and collect results and per-item status; the analysis manages its own transactions
+     */
+    public <T> ComparisonDto<T> analyzeAll(List<String> keys, Function<String, Optional<T>> analysis) {
+        long deadline = System.currentTimeMillis() + deadlineMs;
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+
+        Map<String, T> results = new ConcurrentHashMap<>();
+        Map<String, ComparisonDto.ItemStatus> statuses = new ConcurrentHashMap<>();
+        Queue<String> pending = new ConcurrentLinkedQueue<>(distinct);
+
+        // Each lane works through the shared queue, which caps this request's concurrency at the lane count.
+        // A lane the executor rejects is not started; its share of the items falls to the other lanes,
+        // or is reported as timed out when none started.
+        int lanes = Math.max(1, Math.min(maxConcurrency, distinct.size()));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            try {
+                futures.add(CompletableFuture.runAsync(() -> drain(pending, deadline, analysis, results, statuses), executor));
+            } catch (TaskRejectedException e) {
+                log.warn("Comparison lane executor saturated, started {} of {} lanes", futures.size(), lanes);
+                break;
+            }
+        }
+
+        try {
+            if (!futures.isEmpty()) {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            log.warn("Comparison hit its {}ms deadline with {} of {} items done", deadlineMs, statuses.size(), distinct.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Comparison failed: {}", e.getMessage());
+        }
+
+        // Snapshot in request order; anything without a status by now missed the deadline
+        Map<String, T> ordered = new LinkedHashMap<>();
+        Map<String, ComparisonDto.ItemStatus> orderedStatuses = new LinkedHashMap<>();
+        boolean complete = true;
+        for (String key : distinct) {
+            ComparisonDto.ItemStatus status = statuses.get(key);
+            T result = results.get(key);
+            if (status == null) {
+                status = ComparisonDto.ItemStatus.builder()
+                        .status(ComparisonDto.STATUS_TIMEOUT)
+                        .error("Analysis did not finish within " + deadlineMs + "ms")
+                        .build();
+            } else if (result != null) {
+                ordered.put(key, result);
+            }
+            orderedStatuses.put(key, status);
+            complete &= ComparisonDto.STATUS_OK.equals(status.getStatus());
+        }
+
+        return ComparisonDto.<T>builder()
+                .results(ordered)
+                .items(orderedStatuses)
+                .complete(complete)
+                .build();
+    }
+
+    private <T> void drain(Queue<String> pending, long deadline, Function<String, Optional<T>> analysis,
+                           Map<String, T> results, Map<String, ComparisonDto.ItemStatus> statuses) {
+        String key;
+        while ((key = pending.poll()) != null) {
+            if (System.currentTimeMillis() >= deadline) {
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                Optional<T> result = analysis.apply(key);
+                long duration = System.currentTimeMillis() - start;
+                if (result != null && result.isPresent()) {
+                    results.put(key, result.get());
+                    statuses.put(key, itemStatus(ComparisonDto.STATUS_OK, null, duration));
+                } else {
+                    statuses.put(key, itemStatus(ComparisonDto.STATUS_NOT_FOUND, "No analytics available for " + key, duration));
+                }
+            } catch (Exception e) {
+                log.error("Comparison item {} failed: {}", key, e.getMessage());
+                statuses.put(key, itemStatus(ComparisonDto.STATUS_ERROR, e.getMessage(), System.currentTimeMillis() - start));
+            }
+        }
+    }
+
+    private static ComparisonDto.ItemStatus itemStatus(String status, String error, long durationMs) {
+        return ComparisonDto.ItemStatus.builder()
+                .status(status)
+                .error(error)
+                .durationMs(durationMs)
+                .build();
+    }
+}
@@ -1,22 +1,30 @@
 package com.gitanalyzer.service;
 
+import com.gitanalyzer.dto.ComparisonDto;
 import com.gitanalyzer.dto.GitHubApiResponse;
 import com.gitanalyzer.dto.RepoAnalyticsDto;
 import com.gitanalyzer.model.Repository;
 import com.gitanalyzer.model.Commit;
+import com.gitanalyzer.model.CommitDailyStat;
 import com.gitanalyzer.model.Contributor;
 import com.gitanalyzer.model.User;
 import com.gitanalyzer.repository.RepositoryRepository;
 import com.gitanalyzer.repository.CommitRepository;
+import com.gitanalyzer.repository.CommitDailyStatRepository;
 import com.gitanalyzer.repository.ContributorRepository;
 import com.gitanalyzer.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.data.domain.Pageable;
 //import java.awt.print.Pageable;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -26,6 +34,9 @@ import java.util.stream.Collectors;
 @Service
 public class RepoAnalyticsService {
 
+    /** Stored repository data older than this is re-fetched from GitHub */
+    public static final Duration STALE_AFTER = Duration.ofHours(6);
+
     @Autowired
     private RepositoryRepository repositoryRepository;
 
@@ -41,26 +52,65 @@ public class RepoAnalyticsService {
     @Autowired
     private GitHubApiService gitHubApiService;
 
+    @Autowired
+    private CommitDailyStatRepository commitDailyStatRepository;
+
+    @Autowired
+    private CommitIngestionService commitIngestionService;
+
+    @Autowired
+    private CommitColumnStore commitColumnStore;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private AnalyticsRefresher analyticsRefresher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ParallelAnalysisRunner parallelAnalysisRunner;
+
+    @Value("${analytics.stale-while-revalidate:false}")
+    private boolean staleWhileRevalidate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Writes the commit rollup ahead of a read-only build, committed whatever the caller's transaction does
+    private TransactionTemplate rollupTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        rollupTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        rollupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     /**
-     * Get comprehensive repository analytics
+     * Get comprehensive repository analytics. Not transactional: GitHub is called with no connection held,
+     * each write commits as it is made, and the analytics are built in one read-only transaction afterwards.
      */
-    @Transactional
     public Optional<RepoAnalyticsDto> getRepositoryAnalytics(String owner, String repoName) {
         try {
-            log.info("Generating analytics for repository: {}/{}", owner, repoName);
-
-            // Fetch and save repository data if not exists or outdated
-            Repository repository = fetchAndSaveRepositoryData(owner, repoName);
-            if (repository == null) {
-                log.warn("Repository not found: {}/{}", owner, repoName);
-                return Optional.empty();
+            // Serve the cached DTO while the repository data it was built from is still current
+            Optional<RepoAnalyticsDto> cached = analyticsCache.getRepository(owner, repoName);
+            if (cached.isPresent() && isFresh(cached.get().getAnalyzedAt())) {
+                return cached;
             }
 
-            // Build analytics DTO
-            RepoAnalyticsDto analytics = buildRepositoryAnalytics(repository);
+            // Serve the last computed analytics now and refresh from GitHub in the background
+            if (staleWhileRevalidate) {
+                Optional<RepoAnalyticsDto> lastComputed = cached.isPresent() ? cached : buildFromStoredRepository(owner, repoName);
+                if (lastComputed.isPresent()) {
+                    scheduleRefresh(owner, repoName);
+                    return lastComputed;
+                }
+            }
 
-            log.info("Successfully generated analytics for repository: {}/{}", owner, repoName);
-            return Optional.of(analytics);
+            return generateRepositoryAnalytics(owner, repoName, AnalysisProgress.NONE);
 
         } catch (Exception e) {
             log.error("Error generating analytics for repository {}/{}: {}", owner, repoName, e.getMessage());
@@ -68,22 +118,105 @@ public class RepoAnalyticsService {
         }
     }
 
+    /**
+     * Analyze a repository synchronously, reporting progress; used by background analysis jobs.
+     * Unlike getRepositoryAnalytics this never serves stale results.
+     */
+    public Optional<RepoAnalyticsDto> analyzeRepository(String owner, String repoName, AnalysisProgress progress) {
+        Optional<RepoAnalyticsDto> cached = analyticsCache.getRepository(owner, repoName);
+        if (cached.isPresent() && isFresh(cached.get().getAnalyzedAt())) {
+            return cached;
+        }
+        return generateRepositoryAnalytics(owner, repoName, progress);
+    }
+
+    /**
+     * Fetch repository data if missing or outdated, then build and cache its analytics
+     */
+    private Optional<RepoAnalyticsDto> generateRepositoryAnalytics(String owner, String repoName, AnalysisProgress progress) {
+        log.info("Generating analytics for repository: {}/{}", owner, repoName);
+
+        // Fetch and save repository data if not exists or outdated
+        Repository repository = fetchAndSaveRepositoryData(owner, repoName, progress);
+        if (repository == null) {
+            log.warn("Repository not found: {}/{}", owner, repoName);
+            return Optional.empty();
+        }
+
+        // Build analytics DTO from the committed data, reloaded so its associations can be read
+        progress.update(95, "Computing analytics");
+        RepoAnalyticsDto analytics = buildFromCommittedData(repository);
+        if (analytics == null) {
+            log.warn("Repository {}/{} disappeared before its analytics were built", owner, repoName);
+            return Optional.empty();
+        }
+
+        // Cached after the invalidations ingestion queued on commit
+        analyticsCache.putRepository(owner, repoName, analytics);
+
+        log.info("Successfully generated analytics for repository: {}/{}", owner, repoName);
+        return Optional.of(analytics);
+    }
+
+    /**
+     * Build analytics from the stored repository without contacting GitHub
+     */
+    private Optional<RepoAnalyticsDto> buildFromStoredRepository(String owner, String repoName) {
+        return repositoryRepository.findByUserGithubUsernameAndRepoName(owner, repoName)
+                .filter(repository -> repository.getAnalyzedAt() != null)
+                .map(this::buildFromCommittedData);
+    }
+
+    /**
+     * Make sure the commit activity is readable, then build the analytics in one read-only transaction
+     * from a fresh copy of the repository so its associations can be read
+     */
+    private RepoAnalyticsDto buildFromCommittedData(Repository repository) {
+        prepareCommitActivity(repository);
+        Long repositoryId = repository.getId();
+        return readOnlyTransaction.execute(status -> repositoryRepository.findById(repositoryId)
+                .map(this::buildRepositoryAnalytics)
+                .orElse(null));
+    }
+
+    /**
+     * Load the repository's columns, or failing that write its missing rollup, before the read-only build;
+     * a read-only transaction cannot rebuild the rollup itself
+     */
+    private void prepareCommitActivity(Repository repository) {
+        try {
+            if (commitColumnStore.getOrLoad(repository.getId()).isEmpty()) {
+                rollupTransaction.executeWithoutResult(status -> commitIngestionService.ensureRollup(repository));
+            }
+        } catch (Exception e) {
+            log.error("Error preparing commit activity for repository {}: {}", repository.getFullName(), e.getMessage());
+        }
+    }
+
+    private void scheduleRefresh(String owner, String repoName) {
+        analyticsRefresher.refreshOnce("repository:" + owner + "/" + repoName,
+                () -> generateRepositoryAnalytics(owner, repoName, AnalysisProgress.NONE));
+    }
+
+    private static boolean isFresh(LocalDateTime analyzedAt) {
+        return analyzedAt != null && analyzedAt.isAfter(LocalDateTime.now().minus(STALE_AFTER));
+    }
+
     /**
      * Fetch and save repository data from GitHub API
      */
-    private Repository fetchAndSaveRepositoryData(String owner, String repoName) {
+    private Repository fetchAndSaveRepositoryData(String owner, String repoName, AnalysisProgress progress) {
         try {
             // Check if repository exists and is recent (within 6 hours)
             Optional<Repository> existingRepo = repositoryRepository
                     .findByUserGithubUsernameAndRepoName(owner, repoName);
 
-            if (existingRepo.isPresent() &&
-                    existingRepo.get().getAnalyzedAt() != null &&
-                    existingRepo.get().getAnalyzedAt().isAfter(LocalDateTime.now().minusHours(6))) {
+            if (existingRepo.isPresent() && isFresh(existingRepo.get().getAnalyzedAt())) {
                 return existingRepo.get();
             }
 
             // Ensure user exists
+            progress.update(5, "Fetching repository");
             User user = ensureUserExists(owner);
             if (user == null) {
                 return null;
@@ -102,7 +235,9 @@ public class RepoAnalyticsService {
             repository = repositoryRepository.save(repository);
 
             // Fetch detailed data
-            fetchRepositoryCommits(repository);
+            progress.update(15, "Fetching commits");
+            fetchRepositoryCommits(repository, progress);
+            progress.update(80, "Fetching contributors");
             fetchRepositoryContributors(repository);
 
             return repository;
@@ -142,7 +277,7 @@ public class RepoAnalyticsService {
     /**
      * Fetch repository commits
      */
-    private void fetchRepositoryCommits(Repository repository) {
+    private void fetchRepositoryCommits(Repository repository, AnalysisProgress progress) {
         try {
             String[] parts = repository.getFullName().split("/");
             if (parts.length != 2) return;
@@ -159,13 +294,8 @@ public class RepoAnalyticsService {
                 if (githubCommits.isEmpty()) {
                     hasMore = false;
                 } else {
-                    for (GitHubApiResponse.GitHubCommit githubCommit : githubCommits) {
-                        // Only save if not already exists
-                        if (!commitRepository.existsByCommitSha(githubCommit.getSha())) {
-                            Commit commit = gitHubApiService.convertToCommitEntity(githubCommit, repository);
-                            commitRepository.save(commit);
-                        }
-                    }
+                    commitIngestionService.saveNewCommits(repository, githubCommits);
+                    progress.update(15 + page * 12, "Fetching commits");
                     page++;
                     hasMore = githubCommits.size() == perPage;
                 }
@@ -187,15 +317,17 @@ public class RepoAnalyticsService {
             List<GitHubApiResponse.GitHubContributor> githubContributors =
                     gitHubApiService.getRepositoryContributors(parts[0], parts[1]);
 
-            for (GitHubApiResponse.GitHubContributor githubContributor : githubContributors) {
-                // Check if contributor already exists
-                if (!contributorRepository.existsByRepositoryIdAndContributorName(
-                        repository.getId(), githubContributor.getLogin())) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (GitHubApiResponse.GitHubContributor githubContributor : githubContributors) {
+                    // Check if contributor already exists
+                    if (!contributorRepository.existsByRepositoryIdAndContributorName(
+                            repository.getId(), githubContributor.getLogin())) {
 
-                    Contributor contributor = gitHubApiService.convertToContributorEntity(githubContributor, repository);
-                    contributorRepository.save(contributor);
+                        Contributor contributor = gitHubApiService.convertToContributorEntity(githubContributor, repository);
+                        contributorRepository.save(contributor);
+                    }
                 }
-            }
+            });
 
         } catch (Exception e) {
             log.error("Error fetching contributors for repository {}: {}", repository.getFullName(), e.getMessage());
@@ -206,6 +338,8 @@ public class RepoAnalyticsService {
      * Build repository analytics DTO
      */
     private RepoAnalyticsDto buildRepositoryAnalytics(Repository repository) {
+        CommitActivity commitActivity = loadCommitActivity(repository);
+
         return RepoAnalyticsDto.builder()
                 .repoName(repository.getRepoName())
                 .fullName(repository.getFullName())
@@ -222,13 +356,33 @@ public class RepoAnalyticsService {
                 .lastPushAt(repository.getLastPushAt())
                 .analyzedAt(repository.getAnalyzedAt())
                 .owner(buildOwnerDto(repository.getUser()))
-                .commitAnalytics(buildCommitAnalytics(repository))
+                .commitAnalytics(buildCommitAnalytics(repository, commitActivity))
                 .contributorAnalytics(buildContributorAnalytics(repository))
-                .codeAnalytics(buildCodeAnalytics(repository))
-                .activityAnalytics(buildActivityAnalytics(repository))
+                .codeAnalytics(buildCodeAnalytics(repository, commitActivity))
+                .activityAnalytics(buildActivityAnalytics(repository, commitActivity))
                 .build();
     }
 
+    /**
+     * Resolve the commit activity source: resident columns when available, otherwise the rollup
+     */
+    private CommitActivity loadCommitActivity(Repository repository) {
+        try {
+            Optional<ColumnarCommitActivity> columns = commitColumnStore.getOrLoad(repository.getId());
+            if (columns.isPresent()) {
+                return columns.get();
+            }
+
+            // Written by prepareCommitActivity; this runs read-only
+            List<CommitDailyStat> dailyStats =
+                    commitDailyStatRepository.findByRepositoryIdOrderByStatDateDescHourOfDayDesc(repository.getId());
+            return new RollupCommitActivity(dailyStats, loadCommitTotals(repository));
+        } catch (Exception e) {
+            log.error("Error loading commit activity for repository {}: {}", repository.getFullName(), e.getMessage());
+            return new RollupCommitActivity(new ArrayList<>(), CommitActivity.Totals.EMPTY);
+        }
+    }
+
     /**
      * Build owner DTO
      */
@@ -243,11 +397,11 @@ public class RepoAnalyticsService {
     /**
      * Build commit analytics
      */
-    private RepoAnalyticsDto.CommitAnalytics buildCommitAnalytics(Repository repository) {
+    private RepoAnalyticsDto.CommitAnalytics buildCommitAnalytics(Repository repository, CommitActivity commitActivity) {
         try {
-            List<Commit> commits = commitRepository.findByRepositoryIdOrderByAuthorDateDesc(repository.getId());
+            CommitActivity.Totals totals = commitActivity.totals();
 
-            if (commits.isEmpty()) {
+            if (totals.commits() == 0) {
                 return RepoAnalyticsDto.CommitAnalytics.builder()
                         .totalCommits(0)
                         .totalAdditions(0)
@@ -262,41 +416,23 @@ public class RepoAnalyticsService {
                         .build();
             }
 
-            int totalCommits = commits.size();
-            int totalAdditions = commits.stream().mapToInt(c -> c.getAdditions() != null ? c.getAdditions() : 0).sum();
-            int totalDeletions = commits.stream().mapToInt(c -> c.getDeletions() != null ? c.getDeletions() : 0).sum();
-            int totalChangedFiles = commits.stream().mapToInt(c -> c.getChangedFiles() != null ? c.getChangedFiles() : 0).sum();
+            int totalCommits = totals.commits();
+            int totalAdditions = totals.additions();
+            int totalDeletions = totals.deletions();
+            int totalChangedFiles = totals.changedFiles();
 
             double avgAdditions = totalCommits > 0 ? (double) totalAdditions / totalCommits : 0.0;
             double avgDeletions = totalCommits > 0 ? (double) totalDeletions / totalCommits : 0.0;
             double avgFiles = totalCommits > 0 ? (double) totalChangedFiles / totalCommits : 0.0;
 
-            // First and last commit dates
-            LocalDateTime firstCommit = commits.stream()
-                    .map(Commit::getAuthorDate)
-                    .filter(Objects::nonNull)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(null);
-
-            LocalDateTime lastCommit = commits.stream()
-                    .map(Commit::getAuthorDate)
-                    .filter(Objects::nonNull)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-
             // Build timeline
-            List<RepoAnalyticsDto.CommitTimelineDto> timeline = buildCommitTimeline(commits);
+            List<RepoAnalyticsDto.CommitTimelineDto> timeline = commitActivity.timeline(30); // Last 30 days
 
             // Commits by hour
-            Map<Integer, Integer> commitsByHour = commits.stream()
-                    .filter(c -> c.getAuthorDate() != null)
-                    .collect(Collectors.groupingBy(
-                            c -> c.getAuthorDate().getHour(),
-                            Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)
-                    ));
+            Map<Integer, Integer> commitsByHour = commitActivity.commitsByHour();
 
             // Top commits (by impact)
-            List<RepoAnalyticsDto.TopCommitDto> topCommits = buildTopCommits(commits);
+            List<RepoAnalyticsDto.TopCommitDto> topCommits = buildTopCommits(repository);
 
             return RepoAnalyticsDto.CommitAnalytics.builder()
                     .totalCommits(totalCommits)
@@ -306,8 +442,8 @@ public class RepoAnalyticsService {
                     .averageAdditionsPerCommit(Math.round(avgAdditions * 100.0) / 100.0)
                     .averageDeletionsPerCommit(Math.round(avgDeletions * 100.0) / 100.0)
                     .averageFilesChangedPerCommit(Math.round(avgFiles * 100.0) / 100.0)
-                    .firstCommit(firstCommit)
-                    .lastCommit(lastCommit)
+                    .firstCommit(totals.firstCommit())
+                    .lastCommit(totals.lastCommit())
                     .commitTimeline(timeline)
                     .commitsByHour(commitsByHour)
                     .topCommits(topCommits)
@@ -319,6 +455,26 @@ public class RepoAnalyticsService {
         }
     }
 
+    /**
+     * Load commit totals and first/last commit date with a single aggregate query
+     */
+    private CommitActivity.Totals loadCommitTotals(Repository repository) {
+        List<Object[]> rows = commitRepository.getRepositoryCommitTotals(repository.getId());
+        if (rows.isEmpty() || rows.get(0)[0] == null) {
+            return CommitActivity.Totals.EMPTY;
+        }
+
+        Object[] row = rows.get(0);
+        return new CommitActivity.Totals(
+                ((Number) row[0]).intValue(),
+                row[1] != null ? ((Number) row[1]).intValue() : 0,
+                row[2] != null ? ((Number) row[2]).intValue() : 0,
+                row[3] != null ? ((Number) row[3]).intValue() : 0,
+                (LocalDateTime) row[4],
+                (LocalDateTime) row[5]
+        );
+    }
+
     /**
      * Build contributor analytics
      */
@@ -377,11 +533,11 @@ public class RepoAnalyticsService {
     /**
      * Build code analytics
      */
-    private RepoAnalyticsDto.CodeAnalytics buildCodeAnalytics(Repository repository) {
+    private RepoAnalyticsDto.CodeAnalytics buildCodeAnalytics(Repository repository, CommitActivity commitActivity) {
         try {
-            List<Commit> commits = commitRepository.findByRepositoryIdOrderByAuthorDateDesc(repository.getId());
+            CommitActivity.Totals totals = commitActivity.totals();
 
-            if (commits.isEmpty()) {
+            if (totals.commits() == 0) {
                 return RepoAnalyticsDto.CodeAnalytics.builder()
                         .totalLines(0)
                         .codeChurnRate(0.0)
@@ -391,15 +547,15 @@ public class RepoAnalyticsService {
                         .build();
             }
 
-            int totalAdditions = commits.stream().mapToInt(c -> c.getAdditions() != null ? c.getAdditions() : 0).sum();
-            int totalDeletions = commits.stream().mapToInt(c -> c.getDeletions() != null ? c.getDeletions() : 0).sum();
+            int totalAdditions = totals.additions();
+            int totalDeletions = totals.deletions();
             int totalLines = totalAdditions - totalDeletions;
 
             // Code churn rate
-            double codeChurnRate = commits.size() > 0 ? (double) (totalAdditions + totalDeletions) / commits.size() : 0.0;
+            double codeChurnRate = (double) (totalAdditions + totalDeletions) / totals.commits();
 
             // Average commit size
-            int averageCommitSize = commits.size() > 0 ? (totalAdditions + totalDeletions) / commits.size() : 0;
+            int averageCommitSize = (totalAdditions + totalDeletions) / totals.commits();
 
             // For file types, we'd need additional data from GitHub API
             // For now, we'll use the repository language
@@ -428,39 +584,28 @@ public class RepoAnalyticsService {
     /**
      * Build activity analytics
      */
-    private RepoAnalyticsDto.ActivityAnalytics buildActivityAnalytics(Repository repository) {
+    private RepoAnalyticsDto.ActivityAnalytics buildActivityAnalytics(Repository repository, CommitActivity commitActivity) {
         try {
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime lastWeek = now.minusWeeks(1);
             LocalDateTime lastMonth = now.minusMonths(1);
             LocalDateTime lastYear = now.minusYears(1);
 
-            List<Commit> allCommits = commitRepository.findByRepositoryIdOrderByAuthorDateDesc(repository.getId());
-
-            // Check if repository is active (has commits in last 30 days)
-            boolean isActive = allCommits.stream()
-                    .anyMatch(c -> c.getAuthorDate() != null && c.getAuthorDate().isAfter(lastMonth));
-
             // Count commits in different time periods
-            int commitsLastWeek = (int) allCommits.stream()
-                    .filter(c -> c.getAuthorDate() != null && c.getAuthorDate().isAfter(lastWeek))
-                    .count();
-
-            int commitsLastMonth = (int) allCommits.stream()
-                    .filter(c -> c.getAuthorDate() != null && c.getAuthorDate().isAfter(lastMonth))
-                    .count();
+            int commitsLastWeek = commitActivity.countSince(lastWeek);
+            int commitsLastMonth = commitActivity.countSince(lastMonth);
+            int commitsLastYear = commitActivity.countSince(lastYear);
 
-            int commitsLastYear = (int) allCommits.stream()
-                    .filter(c -> c.getAuthorDate() != null && c.getAuthorDate().isAfter(lastYear))
-                    .count();
+            // Check if repository is active (has commits in last 30 days)
+            boolean isActive = commitsLastMonth > 0;
 
             // Calculate averages
             double weeklyAverageCommits = commitsLastYear / 52.0;
             double monthlyAverageCommits = commitsLastYear / 12.0;
 
             // Busiest days and hours
-            List<String> busiestDays = getBusiestDaysOfWeek(allCommits);
-            List<String> busiestHours = getBusiestHours(allCommits);
+            List<String> busiestDays = getBusiestDaysOfWeek(commitActivity);
+            List<String> busiestHours = getBusiestHours(commitActivity);
 
             return RepoAnalyticsDto.ActivityAnalytics.builder()
                     .isActive(isActive)
@@ -479,53 +624,11 @@ public class RepoAnalyticsService {
         }
     }
 
-    /**
-     * Build commit timeline
-     */
-    private List<RepoAnalyticsDto.CommitTimelineDto> buildCommitTimeline(List<Commit> commits) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-        return commits.stream()
-                .filter(c -> c.getAuthorDate() != null)
-                .collect(Collectors.groupingBy(
-                        c -> c.getAuthorDate().toLocalDate().format(formatter),
-                        Collectors.toList()
-                ))
-                .entrySet().stream()
-                .map(entry -> {
-                    List<Commit> dayCommits = entry.getValue();
-                    int additions = dayCommits.stream().mapToInt(c -> c.getAdditions() != null ? c.getAdditions() : 0).sum();
-                    int deletions = dayCommits.stream().mapToInt(c -> c.getDeletions() != null ? c.getDeletions() : 0).sum();
-                    int uniqueContributors = (int) dayCommits.stream()
-                            .map(Commit::getAuthorName)
-                            .filter(Objects::nonNull)
-                            .distinct()
-                            .count();
-
-                    return RepoAnalyticsDto.CommitTimelineDto.builder()
-                            .date(entry.getKey())
-                            .commits(dayCommits.size())
-                            .additions(additions)
-                            .deletions(deletions)
-                            .uniqueContributors(uniqueContributors)
-                            .build();
-                })
-                .sorted((a, b) -> b.getDate().compareTo(a.getDate()))
-                .limit(30) // Last 30 days
-                .collect(Collectors.toList());
-    }
-
     /**
      * Build top commits
      */
-    private List<RepoAnalyticsDto.TopCommitDto> buildTopCommits(List<Commit> commits) {
-        return commits.stream()
-                .filter(c -> c.getAdditions() != null && c.getDeletions() != null)
-                .sorted((a, b) -> Integer.compare(
-                        (b.getAdditions() + b.getDeletions()),
-                        (a.getAdditions() + a.getDeletions())
-                ))
-                .limit(10)
+    private List<RepoAnalyticsDto.TopCommitDto> buildTopCommits(Repository repository) {
+        return commitRepository.findTopCommitsByImpact(repository.getId(), PageRequest.of(0, 10)).stream()
                 .map(commit -> RepoAnalyticsDto.TopCommitDto.builder()
                         .commitSha(commit.getCommitSha())
                         .message(commit.getMessage())
@@ -600,18 +703,11 @@ public class RepoAnalyticsService {
     /**
      * Get busiest days of week
      */
-    private List<String> getBusiestDaysOfWeek(List<Commit> commits) {
+    private List<String> getBusiestDaysOfWeek(CommitActivity commitActivity) {
         String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
 
-        Map<Integer, Long> dayCount = commits.stream()
-                .filter(c -> c.getAuthorDate() != null)
-                .collect(Collectors.groupingBy(
-                        c -> c.getAuthorDate().getDayOfWeek().getValue(),
-                        Collectors.counting()
-                ));
-
-        return dayCount.entrySet().stream()
-                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+        return commitActivity.commitsByDayOfWeek().entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
                 .limit(3)
                 .map(entry -> days[entry.getKey() - 1])
                 .collect(Collectors.toList());
@@ -620,16 +716,9 @@ public class RepoAnalyticsService {
     /**
      * Get busiest hours
      */
-    private List<String> getBusiestHours(List<Commit> commits) {
-        Map<Integer, Long> hourCount = commits.stream()
-                .filter(c -> c.getAuthorDate() != null)
-                .collect(Collectors.groupingBy(
-                        c -> c.getAuthorDate().getHour(),
-                        Collectors.counting()
-                ));
-
-        return hourCount.entrySet().stream()
-                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+    private List<String> getBusiestHours(CommitActivity commitActivity) {
+        return commitActivity.commitsByHour().entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
                 .limit(3)
                 .map(entry -> String.format("%02d:00", entry.getKey()))
                 .collect(Collectors.toList());
@@ -638,10 +727,10 @@ public class RepoAnalyticsService {
     /**
      * Refresh repository analytics (force update from GitHub)
      */
-    @Transactional
     public Optional<RepoAnalyticsDto> refreshRepositoryAnalytics(String owner, String repoName) {
         try {
             log.info("Refreshing analytics for repository: {}/{}", owner, repoName);
+            analyticsCache.evictRepository(owner, repoName);
 
             // Force refresh by updating analyzed_at to old date
             Optional<Repository> existingRepo = repositoryRepository
@@ -653,7 +742,7 @@ public class RepoAnalyticsService {
                 repositoryRepository.save(repo);
             }
 
-            return getRepositoryAnalytics(owner, repoName);
+            return generateRepositoryAnalytics(owner, repoName, AnalysisProgress.NONE);
 
         } catch (Exception e) {
             log.error("Error refreshing analytics for repository {}/{}: {}", owner, repoName, e.getMessage());
@@ -737,23 +826,17 @@ public class RepoAnalyticsService {
     }
 
     /**
-     * Compare multiple repositories
+     * Compare multiple repositories, analyzing them concurrently; failures and timeouts are reported per repository
      */
-    public Map<String, RepoAnalyticsDto> compareRepositories(List<Map<String, String>> repositories) {
-        Map<String, RepoAnalyticsDto> comparisons = new HashMap<>();
-
-        for (Map<String, String> repo : repositories) {
-            String owner = repo.get("owner");
-            String repoName = repo.get("repoName");
-            String key = owner + "/" + repoName;
-
-            Optional<RepoAnalyticsDto> analytics = getRepositoryAnalytics(owner, repoName);
-            if (analytics.isPresent()) {
-                comparisons.put(key, analytics.get());
-            }
-        }
+    public ComparisonDto<RepoAnalyticsDto> compareRepositories(List<Map<String, String>> repositories) {
+        List<String> fullNames = repositories.stream()
+                .map(repo -> repo.get("owner") + "/" + repo.get("repoName"))
+                .collect(Collectors.toList());
 
-        return comparisons;
+        return parallelAnalysisRunner.analyzeAll(fullNames, fullName -> {
+            int slash = fullName.indexOf('/');
+            return getRepositoryAnalytics(fullName.substring(0, slash), fullName.substring(slash + 1));
+        });
     }
 
     /**
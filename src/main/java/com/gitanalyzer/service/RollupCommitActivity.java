@@ -0,0 +1,92 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.RepoAnalyticsDto;
+import com.gitanalyzer.model.CommitDailyStat;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Commit activity computed from commit_daily_stats rollup buckets.
+ * Buckets are hourly, so time windows are resolved at hour granularity.
+ */
+public class RollupCommitActivity implements CommitActivity {
+
+    private final List<CommitDailyStat> dailyStats;
+    private final Totals totals;
+
+    public RollupCommitActivity(List<CommitDailyStat> dailyStats, Totals totals) {
+        this.dailyStats = dailyStats;
+        this.totals = totals;
+    }
+
+    @Override
+    public Totals totals() {
+        return totals;
+    }
+
+    @Override
+    public List<RepoAnalyticsDto.CommitTimelineDto> timeline(int days) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+        return dailyStats.stream()
+                .collect(Collectors.groupingBy(
+                        s -> s.getStatDate().format(formatter),
+                        Collectors.toList()
+                ))
+                .entrySet().stream()
+                .map(entry -> {
+                    List<CommitDailyStat> dayStats = entry.getValue();
+                    int commits = dayStats.stream().mapToInt(CommitDailyStat::getCommitCount).sum();
+                    int additions = dayStats.stream().mapToInt(CommitDailyStat::getAdditions).sum();
+                    int deletions = dayStats.stream().mapToInt(CommitDailyStat::getDeletions).sum();
+                    int uniqueContributors = (int) dayStats.stream()
+                            .map(CommitDailyStat::getAuthorName)
+                            .filter(name -> !name.isEmpty())
+                            .distinct()
+                            .count();
+
+                    return RepoAnalyticsDto.CommitTimelineDto.builder()
+                            .date(entry.getKey())
+                            .commits(commits)
+                            .additions(additions)
+                            .deletions(deletions)
+                            .uniqueContributors(uniqueContributors)
+                            .build();
+                })
+                .sorted((a, b) -> b.getDate().compareTo(a.getDate()))
+                .limit(days)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Integer, Integer> commitsByHour() {
+        return dailyStats.stream()
+                .collect(Collectors.groupingBy(
+                        CommitDailyStat::getHourOfDay,
+                        Collectors.summingInt(CommitDailyStat::getCommitCount)
+                ));
+    }
+
+    @Override
+    public Map<Integer, Integer> commitsByDayOfWeek() {
+        return dailyStats.stream()
+                .collect(Collectors.groupingBy(
+                        s -> s.getStatDate().getDayOfWeek().getValue(),
+                        Collectors.summingInt(CommitDailyStat::getCommitCount)
+                ));
+    }
+
+    @Override
+    public int countSince(LocalDateTime since) {
+        LocalDateTime bucketStart = since.truncatedTo(ChronoUnit.HOURS);
+        return dailyStats.stream()
+                .filter(s -> !s.getStatDate().atTime(s.getHourOfDay(), 0).isBefore(bucketStart))
+                .mapToInt(CommitDailyStat::getCommitCount)
+                .sum();
+    }
+}
@@ -0,0 +1,276 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.model.SearchSketchCheckpoint;
+import com.gitanalyzer.model.UrlSearchLog;
+import com.gitanalyzer.repository.SearchLogHourlyTargetRepository;
+import com.gitanalyzer.repository.SearchSketchCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Most-searched users and repositories from per-day Space-Saving and Count-Min sketches.
+ * Every logged search updates the current day's sketches in memory; they are checkpointed to the
+ * database periodically and merged with the other nodes' checkpoints, so top-K reads never touch the log table.
+ * Windows older than the sketches' coverage fall back to the hourly target rollup.
+ */
+@Slf4j
+@Service
+public class SearchHeavyHitters {
+
+    static final String TOP_USERS = "TOP_USERS";
+    static final String TOP_REPOSITORIES = "TOP_REPOSITORIES";
+    static final String COUNT_USERS = "COUNT_USERS";
+    static final String COUNT_REPOSITORIES = "COUNT_REPOSITORIES";
+
+    @Autowired
+    private SearchSketchCheckpointRepository searchSketchCheckpointRepository;
+
+    @Autowired
+    private SearchLogHourlyTargetRepository searchLogHourlyTargetRepository;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Value("${search-log.sketch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search-log.sketch.capacity:1000}")
+    private int capacity;
+
+    @Value("${search-log.sketch.count-min-width:2048}")
+    private int countMinWidth;
+
+    @Value("${search-log.sketch.count-min-depth:4}")
+    private int countMinDepth;
+
+    @Value("${search-log.sketch.retention-days:30}")
+    private int retentionDays;
+
+    // Windows this node has recorded into
+    private final Map<LocalDate, Window> local = new ConcurrentHashMap<>();
+
+    // Other nodes' checkpointed windows, reloaded after each checkpoint
+    private volatile Map<LocalDate, List<Window>> remote = Map.of();
+
+    // Earliest day the sketches have data for; older windows are answered from the rollup
+    private volatile LocalDate coveredSince = LocalDate.now();
+
+    /**
+     * Count a logged search
+     */
+    public void record(UrlSearchLog searchLog) {
+        if (!enabled || searchLog.getExtractedUsername() == null || searchLog.getSearchTimestamp() == null) {
+            return;
+        }
+
+        LocalDateTime searchedAt = searchLog.getSearchTimestamp();
+        Window window = local.computeIfAbsent(searchedAt.toLocalDate(), day -> newWindow());
+        long seenAt = Timestamp.valueOf(searchedAt).getTime();
+
+        if ("USER_PROFILE".equals(searchLog.getSearchType())) {
+            String key = key(searchLog.getExtractedUsername());
+            window.topUsers.offer(key, 1, seenAt);
+            window.userCounts.add(key, 1);
+            window.dirty = true;
+        } else if ("REPOSITORY".equals(searchLog.getSearchType()) && searchLog.getExtractedRepo() != null) {
+            String key = key(searchLog.getExtractedUsername() + "/" + searchLog.getExtractedRepo());
+            window.topRepositories.offer(key, 1, seenAt);
+            window.repositoryCounts.add(key, 1);
+            window.dirty = true;
+        }
+    }
+
+    /**
+     * The k most searched users over the last days, highest first
+     */
+    public List<SpaceSavingSketch.Entry> topUsers(int days, int k) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(0, days - 1));
+        if (!covers(from)) {
+            return fromRollup(searchLogHourlyTargetRepository.getTopUsers(from.atStartOfDay(), PageRequest.of(0, k)), false);
+        }
+        return merge(from, window -> window.topUsers).top(k);
+    }
+
+    /**
+     * The k most searched repositories (owner/repo) over the last days, highest first
+     */
+    public List<SpaceSavingSketch.Entry> topRepositories(int days, int k) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(0, days - 1));
+        if (!covers(from)) {
+            return fromRollup(searchLogHourlyTargetRepository.getTopRepositories(from.atStartOfDay(), PageRequest.of(0, k)), true);
+        }
+        return merge(from, window -> window.topRepositories).top(k);
+    }
+
+    /**
+     * Estimated searches for any user over the last days; never an undercount for covered days
+     */
+    public long estimateUser(String username, int days) {
+        String key = key(username);
+        return estimate(days, window -> window.userCounts.estimate(key));
+    }
+
+    /**
+     * Estimated searches for any repository (owner/repo) over the last days
+     */
+    public long estimateRepository(String fullName, int days) {
+        String key = key(fullName);
+        return estimate(days, window -> window.repositoryCounts.estimate(key));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCheckpoints() {
+        reloadRemote();
+    }
+
+    /**
+     * Persist changed windows and pick up the other nodes' latest checkpoints
+     */
+    @Scheduled(fixedDelayString = "${search-log.sketch.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+
+        String nodeId = clusterInvalidationBus.getNodeId();
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        try {
+            for (Map.Entry<LocalDate, Window> entry : local.entrySet()) {
+                Window window = entry.getValue();
+                if (entry.getKey().isBefore(oldest)) {
+                    local.remove(entry.getKey());
+                    continue;
+                }
+                if (!window.dirty) {
+                    continue;
+                }
+                window.dirty = false;
+                searchSketchCheckpointRepository.upsert(nodeId, TOP_USERS, entry.getKey(), window.topUsers.toBytes());
+                searchSketchCheckpointRepository.upsert(nodeId, TOP_REPOSITORIES, entry.getKey(), window.topRepositories.toBytes());
+                searchSketchCheckpointRepository.upsert(nodeId, COUNT_USERS, entry.getKey(), window.userCounts.toBytes());
+                searchSketchCheckpointRepository.upsert(nodeId, COUNT_REPOSITORIES, entry.getKey(), window.repositoryCounts.toBytes());
+            }
+            searchSketchCheckpointRepository.deleteByWindowStartBefore(oldest);
+        } catch (Exception e) {
+            log.error("Could not checkpoint search sketches: {}", e.getMessage());
+        }
+
+        reloadRemote();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        checkpoint();
+    }
+
+    private void reloadRemote() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+            Map<String, Window> byNodeAndDay = new HashMap<>();
+            for (SearchSketchCheckpoint checkpoint : searchSketchCheckpointRepository
+                    .findByNodeIdNotAndWindowStartGreaterThanEqual(clusterInvalidationBus.getNodeId(), oldest)) {
+                Window window = byNodeAndDay.computeIfAbsent(
+                        checkpoint.getNodeId() + "|" + checkpoint.getWindowStart(), key -> newWindow());
+                window.day = checkpoint.getWindowStart();
+                switch (checkpoint.getSketchType()) {
+                    case TOP_USERS -> window.topUsers = SpaceSavingSketch.fromBytes(checkpoint.getPayload());
+                    case TOP_REPOSITORIES -> window.topRepositories = SpaceSavingSketch.fromBytes(checkpoint.getPayload());
+                    case COUNT_USERS -> window.userCounts = CountMinSketch.fromBytes(checkpoint.getPayload());
+                    case COUNT_REPOSITORIES -> window.repositoryCounts = CountMinSketch.fromBytes(checkpoint.getPayload());
+                    default -> log.debug("Ignoring unknown sketch checkpoint type {}", checkpoint.getSketchType());
+                }
+            }
+
+            Map<LocalDate, List<Window>> loaded = new HashMap<>();
+            byNodeAndDay.values().forEach(window -> loaded.computeIfAbsent(window.day, day -> new ArrayList<>()).add(window));
+            remote = loaded;
+
+            LocalDate earliest = loaded.keySet().stream().min(LocalDate::compareTo).orElse(LocalDate.now());
+            if (earliest.isBefore(coveredSince)) {
+                coveredSince = earliest;
+            }
+        } catch (Exception e) {
+            log.error("Could not load search sketch checkpoints: {}", e.getMessage());
+        }
+    }
+
+    private boolean covers(LocalDate from) {
+        return enabled && !from.isBefore(coveredSince);
+    }
+
+    private SpaceSavingSketch merge(LocalDate from, Function<Window, SpaceSavingSketch> sketch) {
+        SpaceSavingSketch merged = new SpaceSavingSketch(capacity);
+        forEachWindow(from, window -> merged.merge(sketch.apply(window)));
+        return merged;
+    }
+
+    private long estimate(int days, ToLongFunction<Window> count) {
+        long[] total = new long[1];
+        forEachWindow(LocalDate.now().minusDays(Math.max(0, days - 1)), window -> total[0] += count.applyAsLong(window));
+        return total[0];
+    }
+
+    private void forEachWindow(LocalDate from, Consumer<Window> action) {
+        local.forEach((day, window) -> {
+            if (!day.isBefore(from)) action.accept(window);
+        });
+        remote.forEach((day, windows) -> {
+            if (!day.isBefore(from)) windows.forEach(action);
+        });
+    }
+
+    private static List<SpaceSavingSketch.Entry> fromRollup(List<Object[]> rows, boolean repositories) {
+        List<SpaceSavingSketch.Entry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String key = repositories ? row[0] + "/" + row[1] : (String) row[0];
+            long count = ((Number) row[repositories ? 2 : 1]).longValue();
+            LocalDateTime lastSearched = (LocalDateTime) row[repositories ? 3 : 2];
+            entries.add(new SpaceSavingSketch.Entry(key, count, 0,
+                    lastSearched != null ? lastSearched.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0));
+        }
+        return entries;
+    }
+
+    private Window newWindow() {
+        Window window = new Window();
+        window.topUsers = new SpaceSavingSketch(capacity);
+        window.topRepositories = new SpaceSavingSketch(capacity);
+        window.userCounts = new CountMinSketch(countMinWidth, countMinDepth);
+        window.repositoryCounts = new CountMinSketch(countMinWidth, countMinDepth);
+        return window;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Window {
+        LocalDate day;
+        SpaceSavingSketch topUsers;
+        SpaceSavingSketch topRepositories;
+        CountMinSketch userCounts;
+        CountMinSketch repositoryCounts;
+        volatile boolean dirty;
+    }
+}
@@ -0,0 +1,321 @@
+package com.gitanalyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps url_search_logs range partitioned by month on search_timestamp.
+ * A missing table is created partitioned, and so is the empty plain table Hibernate's ddl-auto creates on a new
+ * schema; a plain table that already holds rows is only converted when that is switched on, since the copy locks
+ * out writers. Partitions are created ahead of time, and months past the retention
+ * period are rolled into the hourly rollups, detached concurrently and dropped, one month at a time,
+ * so neither writes nor time-bounded reads get slower as history grows.
+ */
+@Slf4j
+@Service
+public class SearchLogPartitionManager implements SmartInitializingSingleton {
+
+    private static final String TABLE = "url_search_logs";
+    private static final String SEQUENCE = "url_search_logs_id_seq";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Advisory lock key so only one node migrates or maintains partitions at a time
+    private static final long PARTITION_LOCK_KEY = 0x75726c7061727473L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SearchLogRollupService searchLogRollupService;
+
+    @Value("${search-log.partitions.enabled:true}")
+    private boolean enabled;
+
+    // Whole months of raw logs kept, not counting the current one
+    @Value("${search-log.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    // Months created ahead of the current one
+    @Value("${search-log.partitions.premake-months:2}")
+    private int premakeMonths;
+
+    // Converting an existing plain table copies every row under an exclusive lock; meant for a maintenance window
+    @Value("${search-log.partitions.migrate-existing:false}")
+    private boolean migrateExisting;
+
+    // How long maintenance DDL waits for a lock before giving up until the next run, so writers never queue behind it
+    @Value("${search-log.partitions.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    /**
+     * Runs once Hibernate has created its schema and before the web server takes requests,
+     * so a table created empty is still empty here
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    /**
+     * Convert url_search_logs to a partitioned table if it is not one yet
+     */
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, PARTITION_LOCK_KEY);
+                String kind = tableKind();
+                if ("p".equals(kind)) {
+                    return;
+                }
+                if (kind == null) {
+                    createPartitionedTable();
+                    ensurePartitions(YearMonth.now(), YearMonth.now().plusMonths(premakeMonths));
+                    log.info("Created partitioned {}", TABLE);
+                } else if (migrateExisting || isEmpty()) {
+                    convertTable();
+                } else {
+                    log.warn("{} is not partitioned; set search-log.partitions.migrate-existing=true during a "
+                            + "maintenance window to convert it", TABLE);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Could not partition {}: {}", TABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Create upcoming partitions, then downsample and drop the ones past retention, each month on its own
+     */
+    @Scheduled(fixedDelayString = "${search-log.partitions.maintenance-interval-ms:3600000}",
+            initialDelayString = "${search-log.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Boolean partitioned = transactionTemplate.execute(status -> {
+                if (!tryPartitionLock() || !"p".equals(tableKind())) {
+                    return false;
+                }
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+                ensurePartitions(YearMonth.now(), YearMonth.now().plusMonths(premakeMonths));
+                dropEmptyDefaultPartition();
+                return true;
+            });
+            if (!Boolean.TRUE.equals(partitioned)) {
+                return;
+            }
+
+            YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+            int dropped = 0;
+            for (YearMonth month : existingPartitions()) {
+                if (!month.isBefore(oldestKept)) {
+                    break;
+                }
+                try {
+                    if (expire(month)) {
+                        dropped++;
+                    }
+                } catch (Exception e) {
+                    log.error("Could not expire search log partition {}: {}", partitionName(month), e.getMessage());
+                }
+            }
+            if (dropped > 0) {
+                log.info("Dropped {} expired {} partitions", dropped, TABLE);
+            }
+        } catch (Exception e) {
+            log.error("Search log partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Roll a month into the hourly rollups, then detach and drop its partition. The downsample only reads
+     * the partition and commits first; the detach never holds a lock that stops writes to the other months.
+     */
+    private boolean expire(YearMonth month) {
+        String partition = partitionName(month);
+
+        // The rollups must hold everything the raw rows say before they go
+        Boolean downsampled = transactionTemplate.execute(status -> {
+            if (!tryPartitionLock()) {
+                return false;
+            }
+            searchLogRollupService.downsample(start(month), start(month.plusMonths(1)));
+            return true;
+        });
+        if (!Boolean.TRUE.equals(downsampled)) {
+            return false;
+        }
+
+        // DETACH ... CONCURRENTLY cannot run inside a transaction, so this uses one autocommit connection
+        // holding a session-level lock for the detach and drop
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                ResultSet locked = statement.executeQuery("SELECT pg_try_advisory_lock(" + PARTITION_LOCK_KEY + ")");
+                if (!locked.next() || !locked.getBoolean(1)) {
+                    return false;
+                }
+                try {
+                    statement.execute("SET lock_timeout = " + lockTimeoutMs);
+                    Boolean detachPending = detachState(partition);
+                    if (detachPending != null) {
+                        // A detach interrupted on an earlier run is completed rather than started again
+                        statement.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition
+                                + (detachPending ? " FINALIZE" : " CONCURRENTLY"));
+                    }
+                    statement.execute("DROP TABLE IF EXISTS " + partition);
+                    return true;
+                } finally {
+                    statement.execute("RESET lock_timeout");
+                    statement.executeQuery("SELECT pg_advisory_unlock(" + PARTITION_LOCK_KEY + ")");
+                }
+            }
+        }));
+    }
+
+    /**
+     * Earlier versions created a default partition, which rules out detaching concurrently; it goes once empty
+     */
+    private void dropEmptyDefaultPartition() {
+        String partition = TABLE + "_default";
+        if (detachState(partition) == null) {
+            return;
+        }
+        Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped empty default partition {}", partition);
+        } else {
+            log.warn("Default partition {} holds rows, so expired partitions cannot be detached concurrently; "
+                    + "move its rows into monthly partitions and drop it", partition);
+        }
+    }
+
+    private boolean tryPartitionLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, PARTITION_LOCK_KEY));
+    }
+
+    // null when the table is not a partition of url_search_logs, true when a concurrent detach was interrupted
+    private Boolean detachState(String partition) {
+        List<Boolean> states = jdbcTemplate.queryForList("SELECT i.inhdetachpending FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                + "WHERE p.relname = ? AND c.relname = ?", Boolean.class, TABLE, partition);
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    /**
+     * Swap the plain table for a partitioned copy; writers wait on the table lock meanwhile
+     */
+    private void convertTable() {
+        String legacy = TABLE + "_unpartitioned";
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + legacy);
+        // Frees the primary key's index name for the new table
+        String primaryKey = jdbcTemplate.queryForObject(
+                "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'p'", String.class, legacy);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + primaryKey + " TO " + legacy + "_pkey");
+        // Drops the identity's own sequence, which would otherwise clash with the new one's name
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN id DROP DEFAULT");
+
+        createPartitionedTable();
+        jdbcTemplate.queryForObject("SELECT setval('" + SEQUENCE + "', COALESCE((SELECT MAX(id) FROM " + legacy + "), 0) + 1, false)",
+                Long.class);
+
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(search_timestamp) FROM " + legacy, LocalDateTime.class);
+        LocalDateTime newest = jdbcTemplate.queryForObject("SELECT MAX(search_timestamp) FROM " + legacy, LocalDateTime.class);
+        YearMonth first = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        YearMonth last = YearMonth.now().plusMonths(premakeMonths);
+        if (newest != null && YearMonth.from(newest).isAfter(last)) {
+            last = YearMonth.from(newest);
+        }
+        ensurePartitions(first, last);
+
+        int rows = jdbcTemplate.update("INSERT INTO " + TABLE + " (id, github_url, search_type, extracted_username, extracted_repo, "
+                + "ip_address, user_agent, search_timestamp, response_status, processing_time_ms) "
+                + "SELECT id, github_url, search_type, extracted_username, extracted_repo, "
+                + "ip_address, user_agent, search_timestamp, response_status, processing_time_ms FROM " + legacy);
+        jdbcTemplate.execute("DROP TABLE " + legacy);
+        log.info("Partitioned {} by month, moved {} rows", TABLE, rows);
+    }
+
+    private void createPartitionedTable() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " ("
+                + "id bigint NOT NULL DEFAULT nextval('" + SEQUENCE + "'), "
+                + "github_url varchar(1000) NOT NULL, "
+                + "search_type varchar(50), "
+                + "extracted_username varchar(100), "
+                + "extracted_repo varchar(255), "
+                + "ip_address varchar(45), "
+                + "user_agent text, "
+                + "search_timestamp timestamp(6) NOT NULL, "
+                + "response_status varchar(20), "
+                + "processing_time_ms integer, "
+                + "PRIMARY KEY (id, search_timestamp)"
+                + ") PARTITION BY RANGE (search_timestamp)");
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " OWNED BY " + TABLE + ".id");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_url_search_logs_timestamp ON " + TABLE + " (search_timestamp)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_url_search_logs_username ON " + TABLE + " (extracted_username, search_timestamp)");
+        // No default partition: it would stop expired months being detached concurrently, and the months
+        // premade ahead of the current one already cover every row written with the current time
+    }
+
+    private void ensurePartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + start(month) + "') TO ('" + start(month.plusMonths(1)) + "')");
+        }
+    }
+
+    private List<YearMonth> existingPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ? AND c.relname ~ '_[0-9]{4}_[0-9]{2}$'", String.class, TABLE)
+                .stream()
+                .map(name -> YearMonth.parse(name.substring(name.length() - 7), PARTITION_SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    private boolean isEmpty() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + TABLE + ")", Boolean.class));
+    }
+
+    // 'p' when partitioned, 'r' for a plain table, null when missing
+    private String tableKind() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass(?)", String.class, TABLE);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,160 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.model.UrlSearchLog;
+import com.gitanalyzer.repository.SearchLogHourlyStatRepository;
+import com.gitanalyzer.repository.SearchLogHourlyTargetRepository;
+import com.gitanalyzer.repository.UrlSearchLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Keeps the hourly search log rollups (search_log_hourly_stats and search_log_hourly_targets)
+ * in step with url_search_logs. Every write of raw log rows goes through here in the same transaction.
+ */
+@Slf4j
+@Service
+public class SearchLogRollupService {
+
+    @Autowired
+    private SearchLogHourlyStatRepository searchLogHourlyStatRepository;
+
+    @Autowired
+    private SearchLogHourlyTargetRepository searchLogHourlyTargetRepository;
+
+    @Autowired
+    private UrlSearchLogRepository urlSearchLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Add newly written logs to the rollups; must run in the transaction that wrote them
+     */
+    @Transactional
+    public void record(List<UrlSearchLog> logs) {
+        // Pre-aggregate the batch so each bucket is written once
+        Map<StatKey, StatDelta> stats = new HashMap<>();
+        Map<TargetKey, TargetDelta> targets = new HashMap<>();
+
+        for (UrlSearchLog searchLog : logs) {
+            if (searchLog.getSearchTimestamp() == null) continue;
+            LocalDateTime hour = searchLog.getSearchTimestamp().truncatedTo(ChronoUnit.HOURS);
+            String searchType = searchLog.getSearchType() != null ? searchLog.getSearchType() : "";
+
+            stats.computeIfAbsent(new StatKey(hour, searchType), key -> new StatDelta()).add(searchLog);
+
+            if (("USER_PROFILE".equals(searchType) || "REPOSITORY".equals(searchType))
+                    && searchLog.getExtractedUsername() != null) {
+                String repoName = searchLog.getExtractedRepo() != null ? searchLog.getExtractedRepo() : "";
+                targets.computeIfAbsent(new TargetKey(hour, searchType, searchLog.getExtractedUsername(), repoName),
+                        key -> new TargetDelta()).add(searchLog.getSearchTimestamp());
+            }
+        }
+
+        stats.forEach((key, delta) -> searchLogHourlyStatRepository.incrementBucket(
+                key.hour(), key.searchType(), delta.total, delta.successful, delta.timed,
+                delta.timeSum, delta.timeMin, delta.timeMax, delta.latency.toArrayLiteral()));
+        targets.forEach((key, delta) -> searchLogHourlyTargetRepository.incrementBucket(
+                key.hour(), key.searchType(), key.username(), key.repoName(), delta.count, delta.lastSearched));
+    }
+
+    /**
+     * Build the rollups from raw logs the first time a node starts with them empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Writers block on the lock, so logs written meanwhile are counted by them and not by the backfill
+                jdbcTemplate.execute("LOCK TABLE search_log_hourly_stats, search_log_hourly_targets IN EXCLUSIVE MODE");
+                if (searchLogHourlyStatRepository.count() > 0 || urlSearchLogRepository.count() == 0) {
+                    return;
+                }
+                int stats = searchLogHourlyStatRepository.rebuildFromLogs();
+                int targets = searchLogHourlyTargetRepository.rebuildFromLogs();
+                log.info("Backfilled search log rollups ({} stat buckets, {} target buckets)", stats, targets);
+            });
+        } catch (Exception e) {
+            log.error("Could not backfill search log rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Make sure the rollups fully describe the raw logs in [from, to) before those rows are dropped:
+     * adds any missing buckets and fills in latency histograms for hours that were backfilled without one
+     */
+    @Transactional
+    public void downsample(LocalDateTime from, LocalDateTime to) {
+        int stats = searchLogHourlyStatRepository.fillMissingFromLogs(from, to);
+        int targets = searchLogHourlyTargetRepository.fillMissingFromLogs(from, to);
+
+        Map<StatKey, LatencyHistogram> histograms = new HashMap<>();
+        for (Object[] row : searchLogHourlyStatRepository.getUnbucketedProcessingTimes(from, to)) {
+            LocalDateTime hour = row[0] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[0];
+            LatencyHistogram histogram = histograms.computeIfAbsent(new StatKey(hour, (String) row[1]), key -> new LatencyHistogram());
+            histogram.add(LatencyHistogram.indexOf(((Number) row[2]).longValue()), ((Number) row[3]).longValue());
+        }
+        histograms.forEach((key, histogram) ->
+                searchLogHourlyStatRepository.setLatencyBuckets(key.hour(), key.searchType(), histogram.toArrayLiteral()));
+
+        log.info("Downsampled search logs {} to {} ({} stat buckets, {} target buckets added, {} histograms filled)",
+                from, to, stats, targets, histograms.size());
+    }
+
+    private record StatKey(LocalDateTime hour, String searchType) {
+    }
+
+    private record TargetKey(LocalDateTime hour, String searchType, String username, String repoName) {
+    }
+
+    private static final class StatDelta {
+        long total;
+        long successful;
+        long timed;
+        long timeSum;
+        Integer timeMin;
+        Integer timeMax;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        void add(UrlSearchLog searchLog) {
+            total++;
+            if ("SUCCESS".equals(searchLog.getResponseStatus())) {
+                successful++;
+            }
+            Integer time = searchLog.getProcessingTimeMs();
+            if (time != null) {
+                timed++;
+                timeSum += time;
+                timeMin = timeMin == null ? time : Math.min(timeMin, time);
+                timeMax = timeMax == null ? time : Math.max(timeMax, time);
+                latency.record(time);
+            }
+        }
+    }
+
+    private static final class TargetDelta {
+        long count;
+        LocalDateTime lastSearched;
+
+        void add(LocalDateTime searchedAt) {
+            count++;
+            if (lastSearched == null || searchedAt.isAfter(lastSearched)) {
+                lastSearched = searchedAt;
+            }
+        }
+    }
+}
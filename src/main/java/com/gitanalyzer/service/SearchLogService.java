@@ -2,12 +2,16 @@ package com.gitanalyzer.service;
 
 import com.gitanalyzer.dto.SearchAnalyticsDto;
 import com.gitanalyzer.model.UrlSearchLog;
+import com.gitanalyzer.repository.SearchLogHourlyStatRepository;
 import com.gitanalyzer.repository.UrlSearchLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 
 import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,18 +32,32 @@ public class SearchLogService {
     private static final String USER_PATTERN = "https://github\\.com/([^/]+)/?$";
     private static final String REPO_PATTERN = "https://github\\.com/([^/]+)/([^/]+)/?$";
 
-    public UrlSearchLog logSearch(String githubUrl, String ipAddress, String userAgent) {
+    @Autowired
+    private SearchLogWriter searchLogWriter;
 
-        UrlSearchLog log = new UrlSearchLog(githubUrl, ipAddress, userAgent);
+    @Autowired
+    private SearchLogHourlyStatRepository searchLogHourlyStatRepository;
 
-        // Parse URL and extract information
-        parseGitHubUrl(log, githubUrl);
+    @Autowired
+    private SearchHeavyHitters searchHeavyHitters;
 
-        // Set initial status
-        log.setResponseStatus("PENDING");
+    @Autowired
+    private LiveSearchMetrics liveSearchMetrics;
+
+    /**
+     * Record a finished search in one step. The row is written behind the request,
+     * so the returned log has no id unless the write buffer was full and it was saved directly.
+     */
+    public UrlSearchLog recordSearch(String githubUrl, String ipAddress, String userAgent,
+                                     String status, Integer processingTime) {
+        UrlSearchLog log = new UrlSearchLog(githubUrl, ipAddress, userAgent);
+        parseGitHubUrl(log, githubUrl);
+        log.setResponseStatus(status);
+        log.setProcessingTimeMs(processingTime);
 
-        // Save to database
-        return urlSearchLogRepository.save(log);
+        searchHeavyHitters.record(log);
+        liveSearchMetrics.record(log);
+        return searchLogWriter.write(log);
     }
 
     private void parseGitHubUrl(UrlSearchLog log, String url) {
@@ -73,131 +91,87 @@ public class SearchLogService {
         }
     }
 
-    public void updateLogStatus(Long logId, String status, Integer processingTime) {
-        UrlSearchLog log = urlSearchLogRepository.findById(logId).orElse(null);
-        if (log != null) {
-            log.setResponseStatus(status);
-            log.setProcessingTimeMs(processingTime);
-            urlSearchLogRepository.save(log);
-        }
-    }
-
     /**
-     * Get search analytics for the specified number of days
+     * Get search analytics for the specified number of days.
+     * Reads the hourly rollups, so cost depends on the window length rather than the number of logged searches;
+     * the window starts at the beginning of the hour containing the cut-off.
      * @param days Number of days to analyze
      * @return SearchAnalyticsDto with comprehensive analytics
      */
     public SearchAnalyticsDto getSearchAnalytics(int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
+        LocalDateTime startDate = LocalDateTime.now().minusDays(days).truncatedTo(ChronoUnit.HOURS);
+
+        long totalSearches = 0;
+        long successfulSearches = 0;
+        long timedSearches = 0;
+        long processingTimeSum = 0;
+        Integer minProcessingTime = null;
+        Integer maxProcessingTime = null;
+        Map<String, long[]> dailyTotals = new TreeMap<>();
+        Map<Integer, Integer> hourlyDistribution = new HashMap<>();
+
+        // One row per hour: (hour, total, successful, timed, time sum, min time, max time)
+        for (Object[] row : searchLogHourlyStatRepository.getHourlyTotals(startDate)) {
+            LocalDateTime hour = (LocalDateTime) row[0];
+            long total = ((Number) row[1]).longValue();
+            long successful = ((Number) row[2]).longValue();
+
+            totalSearches += total;
+            successfulSearches += successful;
+            timedSearches += ((Number) row[3]).longValue();
+            processingTimeSum += ((Number) row[4]).longValue();
+            if (row[5] != null) {
+                int min = ((Number) row[5]).intValue();
+                minProcessingTime = minProcessingTime == null ? min : Math.min(minProcessingTime, min);
+            }
+            if (row[6] != null) {
+                int max = ((Number) row[6]).intValue();
+                maxProcessingTime = maxProcessingTime == null ? max : Math.max(maxProcessingTime, max);
+            }
 
-        // Get all search logs within the date range
-//        List<UrlSearchLog> searchLogs = urlSearchLogRepository.findByCreatedAtAfter(startDate);
-        List<UrlSearchLog> searchLogs = urlSearchLogRepository.findBySearchTimestampAfter(startDate);
+            long[] day = dailyTotals.computeIfAbsent(hour.toLocalDate().toString(), key -> new long[2]);
+            day[0] += total;
+            day[1] += successful;
+            hourlyDistribution.merge(hour.getHour(), (int) total, Integer::sum);
+        }
 
-        // Calculate basic statistics
-        long totalSearches = searchLogs.size();
-        long successfulSearches = searchLogs.stream()
-                .filter(log -> "SUCCESS".equals(log.getResponseStatus()))
-                .count();
         long failedSearches = totalSearches - successfulSearches;
         double successRate = totalSearches > 0 ? (double) successfulSearches / totalSearches * 100 : 0.0;
-
-        // Calculate performance metrics
-        OptionalDouble avgProcessingTime = searchLogs.stream()
-                .filter(log -> log.getProcessingTimeMs() != null)
-                .mapToInt(UrlSearchLog::getProcessingTimeMs)
-                .average();
-
-        Optional<Integer> maxProcessingTime = searchLogs.stream()
-                .filter(log -> log.getProcessingTimeMs() != null)
-                .map(UrlSearchLog::getProcessingTimeMs)
-                .max(Integer::compareTo);
-
-        Optional<Integer> minProcessingTime = searchLogs.stream()
-                .filter(log -> log.getProcessingTimeMs() != null)
-                .map(UrlSearchLog::getProcessingTimeMs)
-                .min(Integer::compareTo);
-
-        // Group by date for daily analytics
-        Map<String, List<UrlSearchLog>> dailyGroups = searchLogs.stream()
-                .collect(Collectors.groupingBy(log ->
-                        log.getSearchTimestamp().toLocalDate().toString())); // Changed from getCreatedAt()
-
-        List<SearchAnalyticsDto.DailySearchDto> dailySearches = dailyGroups.entrySet().stream()
-                .map(entry -> {
-                    List<UrlSearchLog> dayLogs = entry.getValue();
-                    int dayTotal = dayLogs.size();
-                    int daySuccessful = (int) dayLogs.stream()
-                            .filter(log -> "SUCCESS".equals(log.getResponseStatus()))
-                            .count();
-                    int dayFailed = dayTotal - daySuccessful;
-
-                    return SearchAnalyticsDto.DailySearchDto.builder()
-                            .date(entry.getKey())
-                            .totalSearches(dayTotal)
-                            .successfulSearches(daySuccessful)
-                            .failedSearches(dayFailed)
-                            .build();
-                })
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
+        double averageProcessingTime = timedSearches > 0 ? (double) processingTimeSum / timedSearches : 0.0;
+
+        List<SearchAnalyticsDto.DailySearchDto> dailySearches = dailyTotals.entrySet().stream()
+                .map(entry -> SearchAnalyticsDto.DailySearchDto.builder()
+                        .date(entry.getKey())
+                        .totalSearches((int) entry.getValue()[0])
+                        .successfulSearches((int) entry.getValue()[1])
+                        .failedSearches((int) (entry.getValue()[0] - entry.getValue()[1]))
+                        .build())
                 .collect(Collectors.toList());
 
-        // Group by hour for hourly distribution
-        Map<Integer, Integer> hourlyDistribution = searchLogs.stream()
-                .collect(Collectors.groupingBy(
-                        log -> log.getSearchTimestamp().getHour(), // Changed from getCreatedAt()
-                        Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)
-                ));
-
-        // Top searched users
-        List<SearchAnalyticsDto.TopSearchedUserDto> topSearchedUsers = searchLogs.stream()
-                .filter(log -> "USER_PROFILE".equals(log.getSearchType()))
-                .filter(log -> log.getExtractedUsername() != null)
-                .collect(Collectors.groupingBy(UrlSearchLog::getExtractedUsername))
-                .entrySet().stream()
-                .map(entry -> {
-                    String username = entry.getKey();
-                    List<UrlSearchLog> userLogs = entry.getValue();
-                    LocalDateTime lastSearched = userLogs.stream()
-                            .map(UrlSearchLog::getSearchTimestamp) // Changed from getCreatedAt()
-                            .max(LocalDateTime::compareTo)
-                            .orElse(null);
-
-                    return SearchAnalyticsDto.TopSearchedUserDto.builder()
-                            .username(username)
-                            .searchCount(userLogs.size())
-                            .lastSearched(lastSearched)
-                            .build();
-                })
-                .sorted((a, b) -> b.getSearchCount().compareTo(a.getSearchCount()))
-                .limit(10)
-                .collect(Collectors.toList());
-
-        // Top searched repositories
-        List<SearchAnalyticsDto.TopSearchedRepoDto> topSearchedRepositories = searchLogs.stream()
-                .filter(log -> "REPOSITORY".equals(log.getSearchType()))
-                .filter(log -> log.getExtractedRepo() != null && log.getExtractedUsername() != null)
-                .collect(Collectors.groupingBy(log -> log.getExtractedUsername() + "/" + log.getExtractedRepo()))
-                .entrySet().stream()
-                .map(entry -> {
-                    String repoKey = entry.getKey();
-                    List<UrlSearchLog> repoLogs = entry.getValue();
-                    String[] parts = repoKey.split("/");
-                    LocalDateTime lastSearched = repoLogs.stream()
-                            .map(UrlSearchLog::getSearchTimestamp) // Changed from getCreatedAt()
-                            .max(LocalDateTime::compareTo)
-                            .orElse(null);
-
-                    return SearchAnalyticsDto.TopSearchedRepoDto.builder()
-                            .repositoryName(parts.length > 1 ? parts[1] : "")
-                            .ownerUsername(parts.length > 0 ? parts[0] : "")
-                            .searchCount(repoLogs.size())
-                            .lastSearched(lastSearched)
-                            .build();
-                })
-                .sorted((a, b) -> b.getSearchCount().compareTo(a.getSearchCount()))
-                .limit(10)
-                .collect(Collectors.toList());
+        // Top searched users and repositories from the heavy-hitter sketches (day windows covering the cut-off day)
+        List<SearchAnalyticsDto.TopSearchedUserDto> topSearchedUsers =
+                searchHeavyHitters.topUsers(days + 1, 10).stream()
+                        .map(entry -> SearchAnalyticsDto.TopSearchedUserDto.builder()
+                                .username(entry.key())
+                                .searchCount((int) entry.count())
+                                .lastSearched(toLocalDateTime(entry.lastSeen()))
+                                .build())
+                        .collect(Collectors.toList());
+
+        List<SearchAnalyticsDto.TopSearchedRepoDto> topSearchedRepositories =
+                searchHeavyHitters.topRepositories(days + 1, 10).stream()
+                        .map(entry -> {
+                            String[] parts = entry.key().split("/", 2);
+                            return SearchAnalyticsDto.TopSearchedRepoDto.builder()
+                                    .ownerUsername(parts[0])
+                                    .repositoryName(parts.length > 1 ? parts[1] : "")
+                                    .searchCount((int) entry.count())
+                                    .lastSearched(toLocalDateTime(entry.lastSeen()))
+                                    .build();
+                        })
+                        .collect(Collectors.toList());
+
+        SearchAnalyticsDto.LatencyWindowDto latency = getProcessingTimePercentiles(startDate, null, null);
 
         return SearchAnalyticsDto.builder()
                 .totalSearches(totalSearches)
@@ -208,12 +182,62 @@ public class SearchLogService {
                 .hourlyDistribution(hourlyDistribution)
                 .topSearchedUsers(topSearchedUsers)
                 .topSearchedRepositories(topSearchedRepositories)
-                .averageProcessingTime(avgProcessingTime.orElse(0.0))
-                .maxProcessingTime(maxProcessingTime.orElse(0))
-                .minProcessingTime(minProcessingTime.orElse(0))
+                .averageProcessingTime(averageProcessingTime)
+                .maxProcessingTime(maxProcessingTime != null ? maxProcessingTime : 0)
+                .minProcessingTime(minProcessingTime != null ? minProcessingTime : 0)
+                .processingTimePercentiles(latency.getOverall())
+                .processingTimePercentilesBySearchType(latency.getBySearchType())
                 .build();
     }
 
+    /**
+     * Processing time percentiles over [from, to), merged from the hourly latency histograms.
+     * Both ends are widened to whole hours; a null end means now, and searchType optionally narrows the overall figures.
+     */
+    public SearchAnalyticsDto.LatencyWindowDto getProcessingTimePercentiles(LocalDateTime from, LocalDateTime to, String searchType) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        if (!end.equals(end.truncatedTo(ChronoUnit.HOURS))) {
+            end = end.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        }
+
+        LatencyHistogram overall = new LatencyHistogram();
+        Map<String, LatencyHistogram> byType = new TreeMap<>();
+
+        // One row per (search type, bucket): (search type, 1-based bucket index, count)
+        for (Object[] row : searchLogHourlyStatRepository.getLatencyBuckets(start, end)) {
+            String type = (String) row[0];
+            int index = ((Number) row[1]).intValue() - 1;
+            long count = ((Number) row[2]).longValue();
+
+            byType.computeIfAbsent(type.isEmpty() ? "UNKNOWN" : type, key -> new LatencyHistogram()).add(index, count);
+            if (searchType == null || searchType.equalsIgnoreCase(type)) {
+                overall.add(index, count);
+            }
+        }
+
+        Map<String, SearchAnalyticsDto.LatencyPercentilesDto> bySearchType = new LinkedHashMap<>();
+        byType.forEach((type, histogram) -> bySearchType.put(type, toPercentiles(histogram)));
 
+        return SearchAnalyticsDto.LatencyWindowDto.builder()
+                .from(start)
+                .to(end)
+                .overall(toPercentiles(overall))
+                .bySearchType(bySearchType)
+                .build();
+    }
 
+    private static SearchAnalyticsDto.LatencyPercentilesDto toPercentiles(LatencyHistogram histogram) {
+        return SearchAnalyticsDto.LatencyPercentilesDto.builder()
+                .count(histogram.getTotalCount())
+                .p50(histogram.valueAtQuantile(0.50))
+                .p90(histogram.valueAtQuantile(0.90))
+                .p99(histogram.valueAtQuantile(0.99))
+                .p999(histogram.valueAtQuantile(0.999))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return epochMillis > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()) : null;
+    }
 }
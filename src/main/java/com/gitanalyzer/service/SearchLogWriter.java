@@ -0,0 +1,235 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.model.UrlSearchLog;
+import com.gitanalyzer.repository.UrlSearchLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind appender for search logs. Request threads publish finished log rows into a
+ * lock-free ring buffer and return; a single drain thread inserts them in multi-row statements.
+ * When the buffer is full the caller falls back to a synchronous save, so rows are never dropped for lack of space.
+ * Every write updates the hourly rollups in the same transaction as the raw rows.
+ */
+@Slf4j
+@Service
+public class SearchLogWriter {
+
+    // The id comes from the entity's sequence: a table created by Hibernate has no default for it
+    private static final String INSERT_PREFIX = "INSERT INTO url_search_logs (id, github_url, search_type, extracted_username, "
+            + "extracted_repo, ip_address, user_agent, search_timestamp, response_status, processing_time_ms) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(nextval('url_search_logs_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UrlSearchLogRepository urlSearchLogRepository;
+
+    @Autowired
+    private SearchLogRollupService searchLogRollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search-log.async.enabled:true}")
+    private boolean enabled;
+
+    // Rounded up to a power of two
+    @Value("${search-log.async.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${search-log.async.batch-size:500}")
+    private int batchSize;
+
+    @Value("${search-log.async.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // Multi-producer, single-consumer ring: producers claim a slot by CAS on tail, the drain thread owns head
+    private AtomicReferenceArray<UrlSearchLog> slots;
+    private int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private volatile boolean running;
+    private Thread drainer;
+    private Counter bufferedWrites;
+    private Counter synchronousWrites;
+    private Counter failedWrites;
+
+    @PostConstruct
+    void start() {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+
+        Gauge.builder("search_log.buffer.size", this, SearchLogWriter::size)
+                .description("Search logs waiting to be written")
+                .register(meterRegistry);
+        bufferedWrites = Counter.builder("search_log.writes").tag("mode", "buffered").register(meterRegistry);
+        synchronousWrites = Counter.builder("search_log.writes").tag("mode", "synchronous").register(meterRegistry);
+        failedWrites = Counter.builder("search_log.writes").tag("mode", "failed").register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drainLoop, "search-log-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever the drain thread did not get to
+        flush();
+    }
+
+    /**
+     * Queue a finished log row for writing, or save it right away if the buffer is full.
+     * The returned log only has an id when it was saved synchronously.
+     */
+    public UrlSearchLog write(UrlSearchLog searchLog) {
+        if (running && offer(searchLog)) {
+            bufferedWrites.increment();
+            if (size() >= batchSize) {
+                LockSupport.unpark(drainer);
+            }
+            return searchLog;
+        }
+
+        synchronousWrites.increment();
+        return saveNow(searchLog);
+    }
+
+    public long size() {
+        return tail.get() - head;
+    }
+
+    private boolean offer(UrlSearchLog searchLog) {
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.set((int) (claimed & mask), searchLog);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take up to batchSize published rows; stops at a slot that was claimed but not yet filled
+     */
+    private List<UrlSearchLog> poll() {
+        List<UrlSearchLog> batch = new ArrayList<>();
+        long position = head;
+        long end = tail.get();
+        while (position < end && batch.size() < batchSize) {
+            int index = (int) (position & mask);
+            UrlSearchLog searchLog = slots.get(index);
+            if (searchLog == null) {
+                break;
+            }
+            slots.set(index, null);
+            batch.add(searchLog);
+            position++;
+        }
+        head = position;
+        return batch;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (size() < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Search log writer failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        List<UrlSearchLog> batch;
+        while (!(batch = poll()).isEmpty()) {
+            insert(batch);
+        }
+    }
+
+    private void insert(List<UrlSearchLog> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(batch.size() * 9);
+        for (int i = 0; i < batch.size(); i++) {
+            UrlSearchLog searchLog = batch.get(i);
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+            args.add(searchLog.getGithubUrl());
+            args.add(searchLog.getSearchType());
+            args.add(searchLog.getExtractedUsername());
+            args.add(searchLog.getExtractedRepo());
+            args.add(searchLog.getIpAddress());
+            args.add(searchLog.getUserAgent());
+            args.add(Timestamp.valueOf(searchLog.getSearchTimestamp()));
+            args.add(searchLog.getResponseStatus());
+            args.add(searchLog.getProcessingTimeMs());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(sql.toString(), args.toArray());
+                searchLogRollupService.record(batch);
+            });
+        } catch (Exception e) {
+            // One bad row fails the whole statement; retry row by row so only that row is lost
+            log.error("Batch insert of {} search logs failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (UrlSearchLog searchLog : batch) {
+                try {
+                    saveNow(searchLog);
+                } catch (Exception rowError) {
+                    failedWrites.increment();
+                    log.error("Dropping search log for {}: {}", searchLog.getGithubUrl(), rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private UrlSearchLog saveNow(UrlSearchLog searchLog) {
+        return transactionTemplate.execute(status -> {
+            UrlSearchLog saved = urlSearchLogRepository.save(searchLog);
+            searchLogRollupService.record(List.of(saved));
+            return saved;
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.gitanalyzer.service;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Space-Saving top-K summary (Metwally et al.). Tracks at most capacity keys; a new key replaces the
+ * current minimum and inherits its count as error, so any key searched more than total/capacity times is kept.
+ * Counters are bucketed by count, making offers O(log capacity) and top-K reads O(K).
+ */
+public final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeMap<Long, Set<String>> byCount = new TreeMap<>();
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public synchronized void offer(String key, long increment, long seenAtMillis) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            long error = 0;
+            if (counters.size() >= capacity) {
+                // Replace the least counted key; its count becomes the newcomer's error bound
+                Map.Entry<Long, Set<String>> min = byCount.firstEntry();
+                String evicted = min.getValue().iterator().next();
+                unlink(evicted, min.getKey());
+                counters.remove(evicted);
+                error = min.getKey();
+            }
+            counter = new Counter(error, error, 0);
+            counters.put(key, counter);
+        } else {
+            unlink(key, counter.count);
+        }
+
+        counter.count += increment;
+        counter.lastSeen = Math.max(counter.lastSeen, seenAtMillis);
+        byCount.computeIfAbsent(counter.count, count -> new LinkedHashSet<>()).add(key);
+    }
+
+    /**
+     * The k most counted keys, highest first
+     */
+    public synchronized List<Entry> top(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, counters.size()));
+        for (Map.Entry<Long, Set<String>> bucket : byCount.descendingMap().entrySet()) {
+            for (String key : bucket.getValue()) {
+                if (top.size() >= k) {
+                    return top;
+                }
+                Counter counter = counters.get(key);
+                top.add(new Entry(key, counter.count, counter.error, counter.lastSeen));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Fold another summary into this one by adding counts; the result keeps the capacity most counted keys
+     */
+    public void merge(SpaceSavingSketch other) {
+        for (Entry entry : other.top(Integer.MAX_VALUE)) {
+            mergeEntry(entry);
+        }
+    }
+
+    private synchronized void mergeEntry(Entry entry) {
+        Counter counter = counters.get(entry.key());
+        if (counter == null && counters.size() >= capacity && byCount.firstKey() >= entry.count()) {
+            return;
+        }
+        offer(entry.key(), entry.count(), entry.lastSeen());
+        counters.get(entry.key()).error += entry.error();
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    public synchronized byte[] toBytes() {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(capacity);
+            out.writeInt(counters.size());
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().count);
+                out.writeLong(entry.getValue().error);
+                out.writeLong(entry.getValue().lastSeen);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static SpaceSavingSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            SpaceSavingSketch sketch = new SpaceSavingSketch(in.readInt());
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String key = in.readUTF();
+                Counter counter = new Counter(in.readLong(), in.readLong(), in.readLong());
+                sketch.counters.put(key, counter);
+                sketch.byCount.computeIfAbsent(counter.count, count -> new LinkedHashSet<>()).add(key);
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void unlink(String key, long count) {
+        Set<String> bucket = byCount.get(count);
+        bucket.remove(key);
+        if (bucket.isEmpty()) {
+            byCount.remove(count);
+        }
+    }
+
+    /**
+     * A tracked key; its true count lies between count - error and count
+     */
+    public record Entry(String key, long count, long error, long lastSeen) {
+    }
+
+    private static final class Counter {
+        long count;
+        long error;
+        long lastSeen;
+
+        Counter(long count, long error, long lastSeen) {
+            this.count = count;
+            this.error = error;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
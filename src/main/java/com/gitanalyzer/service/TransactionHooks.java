@@ -0,0 +1,38 @@
+package com.gitanalyzer.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for running side effects only once the surrounding transaction has committed
+ */
+public final class TransactionHooks {
+
+    // Set while hooks run: the committed transaction is still bound then, but synchronizations registered now never fire
+    private static final ThreadLocal<Boolean> COMMITTED = new ThreadLocal<>();
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Run the action after the current transaction commits, or immediately when there is none
+     * (or when called from another after-commit hook)
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && COMMITTED.get() == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    COMMITTED.set(Boolean.TRUE);
+                    try {
+                        action.run();
+                    } finally {
+                        COMMITTED.remove();
+                    }
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
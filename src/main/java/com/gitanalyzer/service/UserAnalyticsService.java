@@ -1,6 +1,7 @@
 package com.gitanalyzer.service;
 
 import com.gitanalyzer.dto.GitHubApiResponse;
+import com.gitanalyzer.dto.ComparisonDto;
 import com.gitanalyzer.dto.UserAnalyticsDto;
 import com.gitanalyzer.model.User;
 import com.gitanalyzer.model.Repository;
@@ -8,20 +9,37 @@ import com.gitanalyzer.model.Commit;
 import com.gitanalyzer.repository.UserRepository;
 import com.gitanalyzer.repository.RepositoryRepository;
 import com.gitanalyzer.repository.CommitRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class UserAnalyticsService {
 
+    /** Stored user data older than this is re-fetched from GitHub */
+    public static final Duration STALE_AFTER = Duration.ofHours(24);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -34,29 +52,83 @@ public class UserAnalyticsService {
     @Autowired
     private GitHubApiService gitHubApiService;
 
+    @Autowired
+    private CommitIngestionService commitIngestionService;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private AnalyticsRefresher analyticsRefresher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ParallelAnalysisRunner parallelAnalysisRunner;
+
+    @Autowired
+    @Qualifier("analyticsFanOutExecutor")
+    private AsyncTaskExecutor fanOutExecutor;
+
+    @Value("${analytics.stale-while-revalidate:false}")
+    private boolean staleWhileRevalidate;
+
+    @Value("${analytics.user.section-deadline-ms:10000}")
+    private long sectionDeadlineMs;
+
+    // Sections running on fan-out workers at once across all requests; each holds a pooled connection,
+    // on top of the one its request already holds, so keep this well under the connection pool size
+    @Value("${analytics.user.max-concurrent-sections:4}")
+    private int maxConcurrentSections;
+
+    // Repositories whose commits are fetched from GitHub at once during user ingestion
+    @Value("${analytics.ingestion.concurrency:8}")
+    private int ingestionConcurrency;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Ingestion writes commit on their own, so one failing repository cannot roll back the others
+    private TransactionTemplate ingestTransaction;
+
+    private Semaphore sectionPermits;
+
+    // Life of one section's permit
+    private static final int PERMIT_HELD = 0;
+    private static final int PERMIT_IN_USE = 1;
+    private static final int PERMIT_RELEASED = 2;
+
+    @PostConstruct
+    void init() {
+        sectionPermits = new Semaphore(Math.max(0, maxConcurrentSections));
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        ingestTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        ingestTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     /**
-     * Get comprehensive user analytics
+     * Get comprehensive user analytics. Not transactional: GitHub is called with no connection held,
+     * and every read and write below takes a pooled connection only for as long as it runs.
      */
-    @Transactional
     public Optional<UserAnalyticsDto> getUserAnalytics(String username) {
         try {
-            log.info("Generating analytics for user: {}", username);
-
-            // First, fetch and save user data if not exists or outdated
-            User user = fetchAndSaveUserData(username);
-            if (user == null) {
-                log.warn("User not found: {}", username);
-                return Optional.empty();
+            // Serve the cached DTO while the user data it was built from is still current
+            Optional<UserAnalyticsDto> cached = analyticsCache.getUser(username);
+            if (cached.isPresent() && isFresh(cached.get().getUpdatedAt())) {
+                return cached;
             }
 
-            // Fetch user repositories
-            List<Repository> repositories = repositoryRepository.findByUserGithubUsernameOrderByStarsCountDesc(username);
-
-            // Build analytics DTO
-            UserAnalyticsDto analytics = buildUserAnalytics(user, repositories);
+            // Serve the last computed analytics now and refresh from GitHub in the background
+            if (staleWhileRevalidate) {
+                Optional<UserAnalyticsDto> lastComputed = cached.isPresent() ? cached : buildFromStoredUser(username);
+                if (lastComputed.isPresent()) {
+                    scheduleRefresh(username);
+                    return lastComputed;
+                }
+            }
 
-            log.info("Successfully generated analytics for user: {}", username);
-            return Optional.of(analytics);
+            return generateUserAnalytics(username, AnalysisProgress.NONE);
 
         } catch (Exception e) {
             log.error("Error generating analytics for user {}: {}", username, e.getMessage());
@@ -64,33 +136,91 @@ public class UserAnalyticsService {
         }
     }
 
+    /**
+     * Analyze a user synchronously, reporting progress; used by background analysis jobs.
+     * Unlike getUserAnalytics this never serves stale results.
+     */
+    public Optional<UserAnalyticsDto> analyzeUser(String username, AnalysisProgress progress) {
+        Optional<UserAnalyticsDto> cached = analyticsCache.getUser(username);
+        if (cached.isPresent() && isFresh(cached.get().getUpdatedAt())) {
+            return cached;
+        }
+        return generateUserAnalytics(username, progress);
+    }
+
+    /**
+     * Fetch user data if missing or outdated, then build and cache their analytics
+     */
+    private Optional<UserAnalyticsDto> generateUserAnalytics(String username, AnalysisProgress progress) {
+        log.info("Generating analytics for user: {}", username);
+
+        // First, fetch and save user data if not exists or outdated
+        Optional<User> existingUser = userRepository.findByGithubUsername(username);
+        boolean upToDate = existingUser.isPresent() && isFresh(existingUser.get().getUpdatedAt());
+        User user = upToDate ? existingUser.get() : fetchAndSaveUserData(username, existingUser, progress);
+        if (user == null) {
+            log.warn("User not found: {}", username);
+            return Optional.empty();
+        }
+
+        // Fetch user repositories
+        List<Repository> repositories = repositoryRepository.findByUserGithubUsernameOrderByStarsCountDesc(username);
+
+        // Build analytics DTO; ingestion has committed, so the parallel sections see everything it wrote
+        progress.update(95, "Computing analytics");
+        UserAnalyticsDto analytics = buildUserAnalytics(user, repositories);
+
+        // Cached after the invalidations ingestion queued on commit; a partial result is served once
+        // and recomputed on the next request
+        if (analytics.isPartial()) {
+            log.warn("Analytics for user {} are partial and will not be cached", username);
+        } else {
+            analyticsCache.putUser(username, analytics);
+        }
+
+        log.info("Successfully generated analytics for user: {}", username);
+        return Optional.of(analytics);
+    }
+
+    /**
+     * Build analytics from the stored user and repositories without contacting GitHub
+     */
+    private Optional<UserAnalyticsDto> buildFromStoredUser(String username) {
+        return userRepository.findByGithubUsername(username)
+                .map(user -> buildUserAnalytics(user,
+                        repositoryRepository.findByUserGithubUsernameOrderByStarsCountDesc(username)));
+    }
+
+    private void scheduleRefresh(String username) {
+        analyticsRefresher.refreshOnce("user:" + username, () -> generateUserAnalytics(username, AnalysisProgress.NONE));
+    }
+
+    private static boolean isFresh(LocalDateTime updatedAt) {
+        return updatedAt != null && updatedAt.isAfter(LocalDateTime.now().minus(STALE_AFTER));
+    }
+
     /**
      * Fetch and save user data from GitHub API
      */
-    private User fetchAndSaveUserData(String username) {
+    private User fetchAndSaveUserData(String username, Optional<User> existingUser, AnalysisProgress progress) {
         try {
-            // Check if user exists and is recent (within 24 hours)
-            Optional<User> existingUser = userRepository.findByGithubUsername(username);
-            if (existingUser.isPresent() &&
-                    existingUser.get().getUpdatedAt().isAfter(LocalDateTime.now().minusHours(24))) {
-                return existingUser.get();
-            }
-
             // Fetch from GitHub API
+            progress.update(5, "Fetching profile");
             Optional<GitHubApiResponse.GitHubUser> githubUser = gitHubApiService.getUser(username);
             if (githubUser.isEmpty()) {
                 return null;
             }
 
             // Convert and save
-            User user = gitHubApiService.convertToUserEntity(githubUser.get());
+            User converted = gitHubApiService.convertToUserEntity(githubUser.get());
             if (existingUser.isPresent()) {
-                user.setId(existingUser.get().getId()); // 🔑 Set ID to trigger update instead of insert
+                converted.setId(existingUser.get().getId()); // 🔑 Set ID to trigger update instead of insert
             }
-            user = userRepository.save(user);
+            // Committed before the repositories and commits that reference it are written in their own transactions
+            User user = ingestTransaction.execute(status -> userRepository.save(converted));
 
             // Fetch and save repositories
-            fetchAndSaveUserRepositories(user);
+            fetchAndSaveUserRepositories(user, progress);
 
             return user;
 
@@ -101,27 +231,36 @@ public class UserAnalyticsService {
     }
 
     /**
-     * Fetch and save user repositories
+     * Fetch and save user repositories. Commit pages are fetched from GitHub concurrently, at most
+     * ingestion-concurrency at a time, while all persistence stays on this thread. The repositories
+     * are committed first, then each repository's commits in a transaction of their own.
      */
-    private void fetchAndSaveUserRepositories(User user) {
+    private void fetchAndSaveUserRepositories(User user, AnalysisProgress progress) {
         try {
+            progress.update(10, "Fetching repositories");
             List<GitHubApiResponse.GitHubRepository> githubRepos =
                     gitHubApiService.getUserRepositories(user.getGithubUsername());
 
-            for (GitHubApiResponse.GitHubRepository githubRepo : githubRepos) {
-                // Check if repository already exists
-                Optional<Repository> existingRepo = repositoryRepository
-                        .findByUserGithubUsernameAndRepoName(user.getGithubUsername(), githubRepo.getName());
-
-                if (existingRepo.isEmpty() ||
-                        existingRepo.get().getAnalyzedAt().isBefore(LocalDateTime.now().minusHours(6))) {
-
-                    Repository repository = gitHubApiService.convertToRepositoryEntity(githubRepo, user);
-                    repository = repositoryRepository.save(repository);
+            // Read and written in the ingest transaction so the caller's persistence context never holds the old rows
+            List<Repository> outdated = ingestTransaction.execute(status -> saveOutdatedRepositories(user, githubRepos));
+            if (outdated == null || outdated.isEmpty()) {
+                return;
+            }
 
-                    // Fetch some recent commits for analytics
-                    fetchRecentCommits(repository);
+            // Keep a window of fetches in flight and persist each one as the window slides past it
+            Deque<FutureTask<List<GitHubApiResponse.GitHubCommit>>> inFlight = new ArrayDeque<>();
+            int window = Math.max(1, ingestionConcurrency);
+            int submitted = 0;
+            int processed = 0;
+            while (processed < outdated.size()) {
+                while (submitted < outdated.size() && inFlight.size() < window) {
+                    inFlight.add(fetchRecentCommits(outdated.get(submitted++)));
                 }
+
+                Repository repository = outdated.get(processed);
+                // Repositories span 15-90%
+                progress.update(15 + 75 * processed++ / outdated.size(), "Fetching repository " + repository.getRepoName());
+                saveRecentCommits(repository, inFlight.poll());
             }
 
         } catch (Exception e) {
@@ -130,33 +269,95 @@ public class UserAnalyticsService {
     }
 
     /**
-     * Fetch recent commits for a repository
+     * Save the repositories that are new or were last analyzed more than 6 hours ago
      */
-    private void fetchRecentCommits(Repository repository) {
-        try {
-            String[] parts = repository.getFullName().split("/");
-            if (parts.length != 2) return;
-
-            List<GitHubApiResponse.GitHubCommit> githubCommits =
-                    gitHubApiService.getRepositoryCommits(parts[0], parts[1], 1, 30);
+    private List<Repository> saveOutdatedRepositories(User user, List<GitHubApiResponse.GitHubRepository> githubRepos) {
+        // One query for the stored repositories instead of a lookup per repository
+        Map<String, Repository> existing = new HashMap<>();
+        for (Repository repository : repositoryRepository.findByUserGithubUsernameOrderByStarsCountDesc(user.getGithubUsername())) {
+            existing.put(repository.getRepoName(), repository);
+        }
 
-            for (GitHubApiResponse.GitHubCommit githubCommit : githubCommits) {
-                // Only save if not already exists
-                if (!commitRepository.existsByCommitSha(githubCommit.getSha())) {
-                    Commit commit = gitHubApiService.convertToCommitEntity(githubCommit, repository);
-                    commitRepository.save(commit);
+        List<Repository> outdated = new ArrayList<>();
+        for (GitHubApiResponse.GitHubRepository githubRepo : githubRepos) {
+            Repository stored = existing.get(githubRepo.getName());
+            if (stored == null || stored.getAnalyzedAt() == null ||
+                    stored.getAnalyzedAt().isBefore(LocalDateTime.now().minusHours(6))) {
+                Repository repository = gitHubApiService.convertToRepositoryEntity(githubRepo, user);
+                if (stored != null) {
+                    repository.setId(stored.getId()); // Update the stored row instead of inserting a duplicate
                 }
+                outdated.add(repository);
             }
+        }
+        return outdated.isEmpty() ? outdated : repositoryRepository.saveAll(outdated);
+    }
+
+    /**
+     * Start fetching recent commits for a repository on the fan-out executor
+     */
+    private FutureTask<List<GitHubApiResponse.GitHubCommit>> fetchRecentCommits(Repository repository) {
+        FutureTask<List<GitHubApiResponse.GitHubCommit>> task = new FutureTask<>(() -> {
+            String[] parts = repository.getFullName().split("/");
+            if (parts.length != 2) return Collections.emptyList();
+            return gitHubApiService.getRepositoryCommits(parts[0], parts[1], 1, 30);
+        });
+        try {
+            fanOutExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            log.debug("Fan-out executor saturated, fetching commits for {} inline", repository.getFullName());
+        }
+        return task;
+    }
+
+    /**
+     * Wait for a repository's commit fetch and save the result in its own transaction;
+     * a failure rolls back only this repository's commits
+     */
+    private void saveRecentCommits(Repository repository, FutureTask<List<GitHubApiResponse.GitHubCommit>> fetch) {
+        try {
+            // Runs the fetch here if no worker has picked it up yet
+            fetch.run();
+            List<GitHubApiResponse.GitHubCommit> commits = fetch.get();
+            ingestTransaction.executeWithoutResult(status -> commitIngestionService.saveNewCommits(repository, commits));
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error fetching commits for repository {}: {}", repository.getFullName(), e.getMessage());
         }
     }
 
     /**
-     * Build user analytics DTO
+     * Build user analytics DTO. The sections that query commits run concurrently,
+     * so latency is that of the slowest section rather than the sum.
      */
     private UserAnalyticsDto buildUserAnalytics(User user, List<Repository> repositories) {
+        String username = user.getGithubUsername();
+        long deadline = System.currentTimeMillis() + sectionDeadlineMs;
+        FutureTask<UserAnalyticsDto.ContributionStats> contribution = section(() -> buildContributionStats(username));
+        FutureTask<UserAnalyticsDto.ActivityStats> activity = section(() -> buildActivityStats(username));
+        FutureTask<List<UserAnalyticsDto.TopRepositoryDto>> top = section(() -> buildTopRepositories(repositories));
+
+        UserAnalyticsDto.ContributionStats contributionStats = await(contribution, deadline, "contribution stats", username);
+        UserAnalyticsDto.ActivityStats activityStats = await(activity, deadline, "activity stats", username);
+        List<UserAnalyticsDto.TopRepositoryDto> topRepositories = await(top, deadline, "top repositories", username);
+
+        // Sections that missed the deadline or failed fall back to their empty values
+        boolean partial = false;
+        if (contributionStats == null) {
+            contributionStats = UserAnalyticsDto.ContributionStats.builder().build();
+            partial = true;
+        }
+        if (activityStats == null) {
+            activityStats = UserAnalyticsDto.ActivityStats.builder().build();
+            partial = true;
+        }
+        if (topRepositories == null) {
+            topRepositories = new ArrayList<>();
+            partial = true;
+        }
+
         return UserAnalyticsDto.builder()
                 .githubUsername(user.getGithubUsername())
                 .name(user.getName())
@@ -171,13 +372,72 @@ public class UserAnalyticsService {
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
                 .repositoryStats(buildRepositoryStats(repositories))
-                .contributionStats(buildContributionStats(user.getGithubUsername()))
-                .activityStats(buildActivityStats(user.getGithubUsername()))
-                .topRepositories(buildTopRepositories(repositories))
+                .contributionStats(contributionStats)
+                .activityStats(activityStats)
+                .topRepositories(topRepositories)
                 .languageBreakdown(buildLanguageBreakdown(repositories))
+                .partial(partial)
                 .build();
     }
 
+    /**
+     * Start an analytics section on the fan-out executor in its own read-only transaction. Without a free
+     * section permit the task is left for await to run on the calling thread, so a request then holds one
+     * connection at a time and a burst of requests cannot take more than max-concurrent-sections extra ones.
+     */
+    private <T> FutureTask<T> section(Supplier<T> section) {
+        if (!sectionPermits.tryAcquire()) {
+            log.debug("All analytics section permits in use, running section inline");
+            return new FutureTask<>(() -> readOnlyTransaction.execute(status -> section.get()));
+        }
+        // The permit goes back when the body exits, since a cancelled section may still be holding its
+        // connection; done() only returns it for a task cancelled before the body started
+        AtomicInteger permit = new AtomicInteger(PERMIT_HELD);
+        FutureTask<T> task = new FutureTask<>(() -> {
+            if (!permit.compareAndSet(PERMIT_HELD, PERMIT_IN_USE)) {
+                return null;
+            }
+            try {
+                return readOnlyTransaction.execute(status -> section.get());
+            } finally {
+                permit.set(PERMIT_RELEASED);
+                sectionPermits.release();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (permit.compareAndSet(PERMIT_HELD, PERMIT_RELEASED)) {
+                    sectionPermits.release();
+                }
+            }
+        };
+        try {
+            fanOutExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            log.debug("Fan-out executor saturated, running analytics section inline");
+        }
+        return task;
+    }
+
+    /**
+     * Wait for a section until the shared deadline; a late or failed section yields null.
+     * A section no worker has picked up yet runs on the calling thread, so nested fan-out cannot starve the pool.
+     */
+    private <T> T await(FutureTask<T> future, long deadline, String name, String username) {
+        future.run();
+        try {
+            return future.get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Building {} for {} missed the {}ms deadline", name, username, sectionDeadlineMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error building {} for {}: {}", name, username, e.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Build repository statistics
      */
@@ -225,112 +485,100 @@ public class UserAnalyticsService {
      * Build contribution statistics
      */
     private UserAnalyticsDto.ContributionStats buildContributionStats(String username) {
-        try {
-            List<Commit> userCommits = commitRepository.findByRepository_User_GithubUsernameOrderByCommitterDateDesc(username);
-
-            if (userCommits.isEmpty()) {
-                return UserAnalyticsDto.ContributionStats.builder()
-                        .totalCommits(0)
-                        .totalAdditions(0)
-                        .totalDeletions(0)
-                        .totalChangedFiles(0)
-                        .averageCommitsPerRepo(0.0)
-                        .mostActiveRepository("N/A")
-                        .build();
-            }
-
-            int totalCommits = userCommits.size();
-            int totalAdditions = userCommits.stream().mapToInt(commit -> commit.getAdditions() != null ? commit.getAdditions() : 0).sum();
-            int totalDeletions = userCommits.stream().mapToInt(commit -> commit.getDeletions() != null ? commit.getDeletions() : 0).sum();
-            int totalChangedFiles = userCommits.stream().mapToInt(commit -> commit.getChangedFiles() != null ? commit.getChangedFiles() : 0).sum();
-
-            // Calculate average commits per repository
-            long uniqueRepos = userCommits.stream()
-                    .map(commit -> commit.getRepository().getId())
-                    .distinct()
-                    .count();
-            double averageCommitsPerRepo = uniqueRepos > 0 ? (double) totalCommits / uniqueRepos : 0.0;
-
-            // Find most active repository
-            String mostActiveRepository = userCommits.stream()
-                    .collect(Collectors.groupingBy(commit -> commit.getRepository().getRepoName(), Collectors.counting()))
-                    .entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .orElse("N/A");
+        List<Commit> userCommits = commitRepository.findByRepository_User_GithubUsernameOrderByCommitterDateDesc(username);
 
+        if (userCommits.isEmpty()) {
             return UserAnalyticsDto.ContributionStats.builder()
-                    .totalCommits(totalCommits)
-                    .totalAdditions(totalAdditions)
-                    .totalDeletions(totalDeletions)
-                    .totalChangedFiles(totalChangedFiles)
-                    .averageCommitsPerRepo(averageCommitsPerRepo)
-                    .mostActiveRepository(mostActiveRepository)
+                    .totalCommits(0)
+                    .totalAdditions(0)
+                    .totalDeletions(0)
+                    .totalChangedFiles(0)
+                    .averageCommitsPerRepo(0.0)
+                    .mostActiveRepository("N/A")
                     .build();
-
-        } catch (Exception e) {
-            log.error("Error building contribution stats for {}: {}", username, e.getMessage());
-            return UserAnalyticsDto.ContributionStats.builder().build();
         }
+
+        int totalCommits = userCommits.size();
+        int totalAdditions = userCommits.stream().mapToInt(commit -> commit.getAdditions() != null ? commit.getAdditions() : 0).sum();
+        int totalDeletions = userCommits.stream().mapToInt(commit -> commit.getDeletions() != null ? commit.getDeletions() : 0).sum();
+        int totalChangedFiles = userCommits.stream().mapToInt(commit -> commit.getChangedFiles() != null ? commit.getChangedFiles() : 0).sum();
+
+        // Calculate average commits per repository
+        long uniqueRepos = userCommits.stream()
+                .map(commit -> commit.getRepository().getId())
+                .distinct()
+                .count();
+        double averageCommitsPerRepo = uniqueRepos > 0 ? (double) totalCommits / uniqueRepos : 0.0;
+
+        // Find most active repository
+        String mostActiveRepository = userCommits.stream()
+                .collect(Collectors.groupingBy(commit -> commit.getRepository().getRepoName(), Collectors.counting()))
+                .entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("N/A");
+
+        return UserAnalyticsDto.ContributionStats.builder()
+                .totalCommits(totalCommits)
+                .totalAdditions(totalAdditions)
+                .totalDeletions(totalDeletions)
+                .totalChangedFiles(totalChangedFiles)
+                .averageCommitsPerRepo(averageCommitsPerRepo)
+                .mostActiveRepository(mostActiveRepository)
+                .build();
     }
 
     /**
      * Build activity statistics
      */
     private UserAnalyticsDto.ActivityStats buildActivityStats(String username) {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime lastMonth = now.minusMonths(1);
-            LocalDateTime lastWeek = now.minusWeeks(1);
-
-            List<Commit> recentCommits = commitRepository.findByRepository_User_GithubUsernameAndCommitterDateAfterOrderByCommitterDateDesc(username, lastMonth);
-
-            if (recentCommits.isEmpty()) {
-                return UserAnalyticsDto.ActivityStats.builder()
-                        .lastActivity(null)
-                        .commitsLastMonth(0)
-                        .commitsLastWeek(0)
-                        .dailyActivity(new ArrayList<>())
-                        .hourlyActivity(new HashMap<>())
-                        .build();
-            }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastMonth = now.minusMonths(1);
+        LocalDateTime lastWeek = now.minusWeeks(1);
 
-            // Last activity
-            LocalDateTime lastActivity = recentCommits.stream()
-                    .map(Commit::getCommitterDate)
-                    .filter(Objects::nonNull)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-
-            // Commits last month and week
-            int commitsLastMonth = recentCommits.size();
-            int commitsLastWeek = (int) recentCommits.stream()
-                    .filter(commit -> commit.getCommitterDate() != null && commit.getCommitterDate().isAfter(lastWeek))
-                    .count();
-
-            // Daily activity (last 30 days)
-            List<UserAnalyticsDto.DailyActivityDto> dailyActivity = buildDailyActivity(recentCommits);
-
-            // Hourly activity distribution
-            Map<Integer, Integer> hourlyActivity = recentCommits.stream()
-                    .filter(commit -> commit.getCommitterDate() != null)
-                    .collect(Collectors.groupingBy(
-                            commit -> commit.getCommitterDate().getHour(),
-                            Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)
-                    ));
+        List<Commit> recentCommits = commitRepository.findByRepository_User_GithubUsernameAndCommitterDateAfterOrderByCommitterDateDesc(username, lastMonth);
 
+        if (recentCommits.isEmpty()) {
             return UserAnalyticsDto.ActivityStats.builder()
-                    .lastActivity(lastActivity)
-                    .commitsLastMonth(commitsLastMonth)
-                    .commitsLastWeek(commitsLastWeek)
-                    .dailyActivity(dailyActivity)
-                    .hourlyActivity(hourlyActivity)
+                    .lastActivity(null)
+                    .commitsLastMonth(0)
+                    .commitsLastWeek(0)
+                    .dailyActivity(new ArrayList<>())
+                    .hourlyActivity(new HashMap<>())
                     .build();
-
-        } catch (Exception e) {
-            log.error("Error building activity stats for {}: {}", username, e.getMessage());
-            return UserAnalyticsDto.ActivityStats.builder().build();
         }
+
+        // Last activity
+        LocalDateTime lastActivity = recentCommits.stream()
+                .map(Commit::getCommitterDate)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+
+        // Commits last month and week
+        int commitsLastMonth = recentCommits.size();
+        int commitsLastWeek = (int) recentCommits.stream()
+                .filter(commit -> commit.getCommitterDate() != null && commit.getCommitterDate().isAfter(lastWeek))
+                .count();
+
+        // Daily activity (last 30 days)
+        List<UserAnalyticsDto.DailyActivityDto> dailyActivity = buildDailyActivity(recentCommits);
+
+        // Hourly activity distribution
+        Map<Integer, Integer> hourlyActivity = recentCommits.stream()
+                .filter(commit -> commit.getCommitterDate() != null)
+                .collect(Collectors.groupingBy(
+                        commit -> commit.getCommitterDate().getHour(),
+                        Collectors.collectingAndThen(Collectors.counting(), Math::toIntExact)
+                ));
+
+        return UserAnalyticsDto.ActivityStats.builder()
+                .lastActivity(lastActivity)
+                .commitsLastMonth(commitsLastMonth)
+                .commitsLastWeek(commitsLastWeek)
+                .dailyActivity(dailyActivity)
+                .hourlyActivity(hourlyActivity)
+                .build();
     }
 
     /**
@@ -424,10 +672,10 @@ public class UserAnalyticsService {
     /**
      * Refresh user analytics (force update from GitHub)
      */
-    @Transactional
     public Optional<UserAnalyticsDto> refreshUserAnalytics(String username) {
         try {
             log.info("Refreshing analytics for user: {}", username);
+            analyticsCache.evictUser(username);
 
             // Delete existing data to force refresh
             Optional<User> existingUser = userRepository.findByGithubUsername(username);
@@ -438,7 +686,7 @@ public class UserAnalyticsService {
                 userRepository.save(user);
             }
 
-            return getUserAnalytics(username);
+            return generateUserAnalytics(username, AnalysisProgress.NONE);
 
         } catch (Exception e) {
             log.error("Error refreshing analytics for user {}: {}", username, e.getMessage());
@@ -447,18 +695,9 @@ public class UserAnalyticsService {
     }
 
     /**
-     * Compare multiple users
+     * Compare multiple users, analyzing them concurrently; items that fail or miss the deadline are reported per user
      */
-    public Map<String, UserAnalyticsDto> compareUsers(List<String> usernames) {
-        Map<String, UserAnalyticsDto> comparisons = new HashMap<>();
-
-        for (String username : usernames) {
-            Optional<UserAnalyticsDto> analytics = getUserAnalytics(username);
-            if (analytics.isPresent()) {
-                comparisons.put(username, analytics.get());
-            }
-        }
-
-        return comparisons;
+    public ComparisonDto<UserAnalyticsDto> compareUsers(List<String> usernames) {
+        return parallelAnalysisRunner.analyzeAll(usernames, this::getUserAnalytics);
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.gitanalyzer.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTests {
+
+	@Test
+	void allowsUpToTheLimitWithinAWindow() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 1000);
+
+		assertThat(limiter.remaining("client", 0)).isEqualTo(3);
+		assertThat(limiter.tryAcquire("client", 0)).isZero();
+		assertThat(limiter.remaining("client", 0)).isEqualTo(2);
+		assertThat(limiter.tryAcquire("client", 10)).isZero();
+		assertThat(limiter.tryAcquire("client", 20)).isZero();
+		assertThat(limiter.remaining("client", 20)).isZero();
+		assertThat(limiter.tryAcquire("other", 20)).isZero();
+	}
+
+	@Test
+	void retryAfterWaitsForTheCarriedCountToDecay() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 1000);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquire("client", 0);
+		}
+
+		// The rest of this window, then a third of the next until 3 * (1 - 334/1000) + 1 <= 3
+		assertThat(limiter.tryAcquire("client", 0)).isEqualTo(1334);
+		assertThat(limiter.tryAcquire("client", 1000)).isEqualTo(334);
+		assertThat(limiter.tryAcquire("client", 1333)).isPositive();
+		assertThat(limiter.tryAcquire("client", 1334)).isZero();
+	}
+
+	@Test
+	void retryAfterIsAlwaysAtLeastOneMillisecond() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, 1000);
+		limiter.tryAcquire("client", 0);
+		limiter.tryAcquire("client", 0);
+		limiter.tryAcquire("client", 1600);
+
+		assertThat(limiter.tryAcquire("client", 1600)).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void windowRollDropsCountsOlderThanTheLastWindow() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 1000);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquire("client", 500);
+		}
+
+		// Halfway through the next window half of the previous count still applies
+		assertThat(limiter.remaining("client", 1500)).isEqualTo(1);
+		// Two windows on, nothing is carried over
+		assertThat(limiter.remaining("client", 2500)).isEqualTo(3);
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("client", 2500)).isZero();
+		}
+	}
+
+	@Test
+	void idleKeysAreEvicted() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 1000);
+		limiter.tryAcquire("client", 0);
+		assertThat(limiter.remaining("client", 500)).isZero();
+
+		limiter.evictIdle(2000);
+
+		assertThat(limiter.remaining("client", 500)).isEqualTo(1);
+	}
+}
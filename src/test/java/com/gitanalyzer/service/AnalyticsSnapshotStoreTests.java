@@ -0,0 +1,45 @@
+package com.gitanalyzer.service;
+
+import com.gitanalyzer.dto.RepoAnalyticsDto;
+import com.gitanalyzer.model.AnalyticsSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AnalyticsSnapshotStoreTests {
+
+	@Autowired
+	private AnalyticsSnapshotStore analyticsSnapshotStore;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void snapshotWrittenAfterCommitCanBeReadBack() {
+		String key = "snapshot-test/" + UUID.randomUUID();
+		RepoAnalyticsDto analytics = RepoAnalyticsDto.builder().fullName(key).starsCount(42).build();
+
+		// Same path as the analytics services: the put runs in an after-commit hook of a transaction
+		transactionTemplate.executeWithoutResult(status -> TransactionHooks.afterCommit(() ->
+				analyticsSnapshotStore.save(AnalyticsSnapshot.TYPE_REPOSITORY, key, analytics, LocalDateTime.now())));
+
+		Optional<RepoAnalyticsDto> loaded =
+				analyticsSnapshotStore.load(AnalyticsSnapshot.TYPE_REPOSITORY, key, RepoAnalyticsDto.class);
+		assertThat(loaded).isPresent();
+		assertThat(loaded.get().getFullName()).isEqualTo(key);
+		assertThat(loaded.get().getStarsCount()).isEqualTo(42);
+
+		transactionTemplate.executeWithoutResult(status -> TransactionHooks.afterCommit(() ->
+				analyticsSnapshotStore.delete(AnalyticsSnapshot.TYPE_REPOSITORY, key)));
+
+		assertThat(analyticsSnapshotStore.load(AnalyticsSnapshot.TYPE_REPOSITORY, key, RepoAnalyticsDto.class)).isEmpty();
+	}
+}
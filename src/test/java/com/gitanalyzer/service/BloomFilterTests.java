@@ -0,0 +1,43 @@
+package com.gitanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void everyInsertedValueIsReported() {
+		BloomFilter filter = new BloomFilter(1000, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			filter.put("owner/repo-" + i);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertThat(filter.mightContain("owner/repo-" + i)).isTrue();
+		}
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(1000, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			filter.put("owner/repo-" + i);
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("other/repo-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThanOrEqualTo(200);
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(100, 0.01);
+
+		assertThat(filter.mightContain("owner/repo")).isFalse();
+	}
+}
@@ -0,0 +1,89 @@
+package com.gitanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommitColumnsTests {
+
+	@Test
+	void buildsColumnsInTimeOrderWithAnAuthorDictionary() {
+		CommitColumns columns = CommitColumns.of(List.of(
+				row(3L, 300, "alice"),
+				row(1L, 100, "bob"),
+				row(2L, 200, "alice")));
+
+		assertThat(columns.size()).isEqualTo(3);
+		assertThat(epochs(columns)).containsExactly(100L, 200L, 300L);
+		assertThat(ids(columns)).containsExactly(1L, 2L, 3L);
+		assertThat(columns.authorCount()).isEqualTo(2);
+		assertThat(columns.authorName(columns.authorIdAt(0))).isEqualTo("bob");
+		assertThat(columns.authorIdAt(1)).isEqualTo(columns.authorIdAt(2));
+		assertThat(columns.maxCommitId()).isEqualTo(3);
+	}
+
+	@Test
+	void appendMergesNewRowsIntoTimeOrder() {
+		CommitColumns columns = CommitColumns.of(List.of(row(1L, 10, "alice"), row(2L, 30, "bob")));
+
+		CommitColumns appended = columns.append(List.of(row(4L, 40, "carol"), row(3L, 20, "alice")));
+
+		assertThat(epochs(appended)).containsExactly(10L, 20L, 30L, 40L);
+		assertThat(ids(appended)).containsExactly(1L, 3L, 2L, 4L);
+		assertThat(appended.additionsAt(1)).isEqualTo(3);
+		assertThat(appended.authorCount()).isEqualTo(3);
+		assertThat(appended.authorName(appended.authorIdAt(3))).isEqualTo("carol");
+		assertThat(appended.authorIdAt(1)).isEqualTo(appended.authorIdAt(0));
+		assertThat(appended.maxCommitId()).isEqualTo(4);
+		// The original snapshot is left untouched
+		assertThat(columns.size()).isEqualTo(2);
+	}
+
+	@Test
+	void appendSkipsCommitsAlreadyInTheColumns() {
+		CommitColumns columns = CommitColumns.of(List.of(row(1L, 10, "alice"), row(2L, 20, "bob")));
+
+		assertThat(columns.append(List.of(row(2L, 20, "bob"), row(1L, 10, "alice")))).isSameAs(columns);
+
+		CommitColumns appended = columns.append(List.of(row(2L, 20, "bob"), row(5L, 50, "bob")));
+		assertThat(ids(appended)).containsExactly(1L, 2L, 5L);
+	}
+
+	@Test
+	void appendKeepsUnseenCommitsWithLowerIds() {
+		// Concurrent ingests commit ids out of order, so an id below the maximum can still be new
+		CommitColumns columns = CommitColumns.of(List.of(row(5L, 10, "alice"), row(9L, 30, "alice")));
+
+		CommitColumns appended = columns.append(List.of(row(7L, 20, "bob")));
+
+		assertThat(ids(appended)).containsExactly(5L, 7L, 9L);
+		assertThat(appended.maxCommitId()).isEqualTo(9);
+	}
+
+	@Test
+	void copyKeepsEveryColumn() {
+		CommitColumns columns = CommitColumns.of(List.of(row(1L, 10, "alice"), row(2L, 20, "bob")));
+
+		CommitColumns copy = CommitColumns.copyOf(columns);
+
+		assertThat(ids(copy)).containsExactly(1L, 2L);
+		assertThat(epochs(copy)).containsExactly(10L, 20L);
+		assertThat(copy.authorName(copy.authorIdAt(1))).isEqualTo("bob");
+		assertThat(copy.maxCommitId()).isEqualTo(2);
+	}
+
+	private static CommitColumns.Row row(Long commitId, long epochSecond, String author) {
+		return new CommitColumns.Row(commitId, epochSecond, commitId.intValue(), 1, 1, author);
+	}
+
+	private static List<Long> ids(CommitColumns columns) {
+		return IntStream.range(0, columns.size()).mapToObj(columns::commitIdAt).toList();
+	}
+
+	private static List<Long> epochs(CommitColumns columns) {
+		return IntStream.range(0, columns.size()).mapToObj(columns::epochSecondAt).toList();
+	}
+}
@@ -0,0 +1,83 @@
+package com.gitanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTests {
+
+	@Test
+	void estimatesNeverUndercountAndStayWithinTheErrorBound() {
+		CountMinSketch sketch = new CountMinSketch(2000, 5);
+		Map<String, Long> truth = new HashMap<>();
+		long total = 0;
+		for (int i = 0; i < 1000; i++) {
+			String key = "query-" + i;
+			long count = i % 10 + 1;
+			sketch.add(key, count);
+			truth.put(key, count);
+			total += count;
+		}
+
+		// Overestimates by at most e / width * total, except with probability e^-depth per key
+		double bound = Math.E / 2000 * total;
+		int withinBound = 0;
+		for (Map.Entry<String, Long> entry : truth.entrySet()) {
+			long estimate = sketch.estimate(entry.getKey());
+			assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+			if (estimate - entry.getValue() <= bound) {
+				withinBound++;
+			}
+		}
+		assertThat(withinBound).isGreaterThanOrEqualTo(990);
+	}
+
+	@Test
+	void mergeAddsTheOtherSketchCounts() {
+		CountMinSketch first = new CountMinSketch(64, 4);
+		CountMinSketch second = new CountMinSketch(64, 4);
+		first.add("spring", 3);
+		first.add("kafka", 1);
+		second.add("spring", 2);
+		second.add("redis", 5);
+
+		CountMinSketch merged = new CountMinSketch(64, 4);
+		merged.merge(first);
+		merged.merge(second);
+
+		assertThat(merged.estimate("spring")).isGreaterThanOrEqualTo(5);
+		assertThat(merged.estimate("kafka")).isGreaterThanOrEqualTo(1);
+		assertThat(merged.estimate("redis")).isGreaterThanOrEqualTo(5);
+		assertThat(merged.estimate("spring")).isLessThanOrEqualTo(first.estimate("spring") + second.estimate("spring"));
+	}
+
+	@Test
+	void mergeRejectsADifferentShape() {
+		CountMinSketch sketch = new CountMinSketch(64, 4);
+
+		assertThatThrownBy(() -> sketch.merge(new CountMinSketch(128, 4)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> sketch.merge(new CountMinSketch(64, 3)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void bytesRoundTripKeepsEveryCounter() {
+		CountMinSketch sketch = new CountMinSketch(256, 4);
+		for (int i = 0; i < 300; i++) {
+			sketch.add("query-" + i, i + 1);
+		}
+
+		CountMinSketch restored = CountMinSketch.fromBytes(sketch.toBytes());
+
+		assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+		for (int i = 0; i < 300; i++) {
+			assertThat(restored.estimate("query-" + i)).isEqualTo(sketch.estimate("query-" + i));
+		}
+		assertThat(restored.estimate("never-added")).isEqualTo(sketch.estimate("never-added"));
+	}
+}
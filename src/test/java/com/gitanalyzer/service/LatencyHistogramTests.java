@@ -0,0 +1,84 @@
+package com.gitanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTests {
+
+	@Test
+	void smallValuesHaveTheirOwnBucket() {
+		for (long value = 0; value < 32; value++) {
+			int index = LatencyHistogram.indexOf(value);
+			assertThat(index).isEqualTo((int) value);
+			assertThat(LatencyHistogram.highestValueIn(index)).isEqualTo(value);
+		}
+	}
+
+	@Test
+	void bucketsWidenWithTheValue() {
+		assertThat(LatencyHistogram.indexOf(32)).isEqualTo(32);
+		assertThat(LatencyHistogram.indexOf(33)).isEqualTo(32);
+		assertThat(LatencyHistogram.indexOf(34)).isEqualTo(33);
+		assertThat(LatencyHistogram.highestValueIn(32)).isEqualTo(33);
+		assertThat(LatencyHistogram.indexOf(100)).isEqualTo(LatencyHistogram.indexOf(103));
+		assertThat(LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(100))).isEqualTo(103);
+	}
+
+	@Test
+	void everyValueFallsInABucketWhoseTopIsWithinASixteenth() {
+		int previousIndex = 0;
+		for (long value = 0; value <= 200_000; value++) {
+			int index = LatencyHistogram.indexOf(value);
+			long highest = LatencyHistogram.highestValueIn(index);
+			assertThat(highest).isGreaterThanOrEqualTo(value);
+			assertThat(highest - value).isLessThanOrEqualTo(value / 16);
+			assertThat(index).isBetween(previousIndex, previousIndex + 1);
+			previousIndex = index;
+		}
+	}
+
+	@Test
+	void outOfRangeValuesAreClamped() {
+		assertThat(LatencyHistogram.indexOf(-5)).isEqualTo(0);
+		assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+	}
+
+	@Test
+	void quantilesReportTheTopOfTheBucketHoldingTheRank() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.valueAtQuantile(0.5)).isEqualTo(0);
+
+		for (long value = 1; value <= 100; value++) {
+			histogram.record(value);
+		}
+
+		assertThat(histogram.getTotalCount()).isEqualTo(100);
+		assertThat(histogram.valueAtQuantile(0.0)).isEqualTo(1);
+		assertThat(histogram.valueAtQuantile(0.5)).isEqualTo(51);
+		assertThat(histogram.valueAtQuantile(0.99)).isBetween(99L, 103L);
+		assertThat(histogram.valueAtQuantile(1.0)).isEqualTo(103);
+	}
+
+	@Test
+	void addIgnoresInvalidBucketsAndCounts() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.add(-1, 5);
+		histogram.add(LatencyHistogram.BUCKET_COUNT, 5);
+		histogram.add(3, 0);
+		histogram.add(2, 4);
+
+		assertThat(histogram.getTotalCount()).isEqualTo(4);
+		assertThat(histogram.valueAtQuantile(0.5)).isEqualTo(2);
+	}
+
+	@Test
+	void arrayLiteralDropsTrailingEmptyBuckets() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(0);
+		histogram.record(2);
+		histogram.record(2);
+
+		assertThat(histogram.toArrayLiteral()).isEqualTo("{1,0,2}");
+	}
+}
@@ -0,0 +1,100 @@
+package com.gitanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSketchTests {
+
+	@Test
+	void countsAreExactWhileUnderCapacity() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+		sketch.offer("spring", 3, 100);
+		sketch.offer("kafka", 1, 200);
+		sketch.offer("spring", 2, 300);
+
+		assertThat(sketch.top(10)).containsExactly(
+				new SpaceSavingSketch.Entry("spring", 5, 0, 300),
+				new SpaceSavingSketch.Entry("kafka", 1, 0, 200));
+		assertThat(sketch.size()).isEqualTo(2);
+	}
+
+	@Test
+	void newcomerReplacesTheMinimumAndInheritsItsCountAsError() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+		sketch.offer("spring", 5, 1);
+		sketch.offer("kafka", 3, 2);
+		sketch.offer("redis", 1, 3);
+
+		List<SpaceSavingSketch.Entry> top = sketch.top(2);
+		assertThat(top).containsExactly(
+				new SpaceSavingSketch.Entry("spring", 5, 0, 1),
+				new SpaceSavingSketch.Entry("redis", 4, 3, 3));
+		// The true count of 1 lies between count - error and count
+		assertThat(top.get(1).count() - top.get(1).error()).isLessThanOrEqualTo(1);
+	}
+
+	@Test
+	void frequentKeySurvivesALongTailOfDistinctKeys() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+		for (int i = 0; i < 200; i++) {
+			sketch.offer("tail-" + i, 1, i);
+			if (i % 4 == 0) {
+				sketch.offer("hot", 1, i);
+			}
+		}
+
+		SpaceSavingSketch.Entry hottest = sketch.top(1).get(0);
+		assertThat(hottest.key()).isEqualTo("hot");
+		assertThat(hottest.count() - hottest.error()).isLessThanOrEqualTo(50);
+		assertThat(hottest.count()).isGreaterThanOrEqualTo(50);
+		assertThat(sketch.size()).isEqualTo(10);
+	}
+
+	@Test
+	void mergeAddsCountsOfSharedKeys() {
+		SpaceSavingSketch first = new SpaceSavingSketch(10);
+		first.offer("spring", 5, 10);
+		first.offer("kafka", 2, 20);
+		SpaceSavingSketch second = new SpaceSavingSketch(10);
+		second.offer("spring", 3, 30);
+		second.offer("redis", 4, 5);
+
+		first.merge(second);
+
+		assertThat(first.top(10)).containsExactly(
+				new SpaceSavingSketch.Entry("spring", 8, 0, 30),
+				new SpaceSavingSketch.Entry("redis", 4, 0, 5),
+				new SpaceSavingSketch.Entry("kafka", 2, 0, 20));
+	}
+
+	@Test
+	void mergeSkipsKeysBelowAFullSummaryMinimum() {
+		SpaceSavingSketch first = new SpaceSavingSketch(2);
+		first.offer("spring", 5, 1);
+		first.offer("kafka", 3, 2);
+		SpaceSavingSketch second = new SpaceSavingSketch(2);
+		second.offer("redis", 2, 3);
+
+		first.merge(second);
+
+		assertThat(first.top(2)).extracting(SpaceSavingSketch.Entry::key).containsExactly("spring", "kafka");
+	}
+
+	@Test
+	void bytesRoundTripKeepsEveryCounter() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+		sketch.offer("spring", 7, 100);
+		sketch.offer("kafka", 4, 200);
+		sketch.offer("redis", 2, 300);
+		sketch.offer("postgres", 1, 400);
+
+		SpaceSavingSketch restored = SpaceSavingSketch.fromBytes(sketch.toBytes());
+
+		assertThat(restored.top(10)).isEqualTo(sketch.top(10));
+		restored.offer("mysql", 1, 500);
+		assertThat(restored.size()).isEqualTo(3);
+	}
+}